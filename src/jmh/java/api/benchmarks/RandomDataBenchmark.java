@@ -0,0 +1,22 @@
+package api.benchmarks;
+
+import api.data.RandomData;
+import org.openjdk.jmh.annotations.Benchmark;
+
+public class RandomDataBenchmark {
+
+    @Benchmark
+    public String getString() {
+        return RandomData.getString();
+    }
+
+    @Benchmark
+    public String getStringWithPrefix() {
+        return RandomData.getString("name");
+    }
+
+    @Benchmark
+    public String getStringWithLength() {
+        return RandomData.getString(64);
+    }
+}
@@ -0,0 +1,67 @@
+package api.benchmarks;
+
+import api.annotations.Optional;
+import api.annotations.Parameterizable;
+import api.annotations.Random;
+import api.data.RandomData;
+import api.models.BaseModel;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.ParameterizedType;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Прежняя реализация TestDataGenerator без кэша GenerationPlan: поля, аннотации и конструктор разбираются
+ * через рефлексию при каждой генерации. Оставлена только как базовая линия для сравнения в бенчмарке.
+ */
+final class ReflectiveTestDataGenerator {
+
+    private ReflectiveTestDataGenerator() {
+    }
+
+    static <T extends BaseModel> T generate(List<BaseModel> generatedModels, Class<T> generatorClass,
+                                            Object... parameters) {
+        try {
+            var instance = generatorClass.getDeclaredConstructor().newInstance();
+            for (var field : generatorClass.getDeclaredFields()) {
+                field.setAccessible(true);
+                if (!field.isAnnotationPresent(Optional.class)) {
+                    var generatedClass = generatedModels.stream().filter(m
+                            -> m.getClass().equals(field.getType())).findFirst();
+                    if (field.isAnnotationPresent(Parameterizable.class) && parameters.length > 0) {
+                        field.set(instance, parameters[0]);
+                        parameters = Arrays.copyOfRange(parameters, 1, parameters.length);
+                    } else if (field.isAnnotationPresent(Random.class)) {
+                        if (String.class.equals(field.getType())) {
+                            field.set(instance, RandomData.getString(field.getName()));
+                        }
+                    } else if (BaseModel.class.isAssignableFrom(field.getType())) {
+                        var finalParameters = parameters;
+                        field.set(instance, generatedClass.orElseGet(() -> generate(
+                                generatedModels, field.getType().asSubclass(BaseModel.class), finalParameters)));
+                    } else if (List.class.isAssignableFrom(field.getType())) {
+                        if (field.getGenericType() instanceof ParameterizedType pt) {
+                            var typeClass = (Class<?>) pt.getActualTypeArguments()[0];
+                            if (BaseModel.class.isAssignableFrom(typeClass)) {
+                                var finalParameters = parameters;
+                                field.set(instance, generatedClass.map(List::of).orElseGet(() -> List.of(generate(
+                                        generatedModels, typeClass.asSubclass(BaseModel.class), finalParameters))));
+                            }
+                        }
+                    }
+                }
+                field.setAccessible(false);
+            }
+            return instance;
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException
+                 | NoSuchMethodException e) {
+            throw new IllegalStateException("Cannot generate test data", e);
+        }
+    }
+
+    static <T extends BaseModel> T generate(Class<T> generatorClass, Object... parameters) {
+        return generate(Collections.emptyList(), generatorClass, parameters);
+    }
+}
@@ -0,0 +1,65 @@
+package api.benchmarks;
+
+import api.data.TestDataGenerator;
+import api.enums.Endpoint;
+import api.models.BuildType;
+import api.models.Project;
+import api.models.TestData;
+import api.models.User;
+import api.spec.ModelMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Project project;
+    private BuildType buildType;
+    private User user;
+    private byte[] projectJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        var testData = TestData.generate();
+        project = testData.getProject();
+        buildType = testData.getBuildType();
+        user = testData.getUser();
+        projectJson = objectMapper.writeValueAsBytes(TestDataGenerator.generate(Project.class));
+    }
+
+    @Benchmark
+    public byte[] serializeProject() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(project);
+    }
+
+    @Benchmark
+    public byte[] serializeBuildType() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(buildType);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public Project deserializeProject() throws IOException {
+        return objectMapper.readValue(projectJson, Project.class);
+    }
+
+    @Benchmark
+    public byte[] serializeProjectWithEndpointWriter() throws JsonProcessingException {
+        return ModelMapper.writer(Endpoint.PROJECTS).writeValueAsBytes(project);
+    }
+
+    @Benchmark
+    public Project deserializeProjectWithEndpointReader() throws IOException {
+        return ModelMapper.reader(Endpoint.PROJECTS).readValue(projectJson);
+    }
+}
@@ -0,0 +1,57 @@
+package api.benchmarks;
+
+import api.data.TestDataGenerator;
+import api.enums.Endpoint;
+import api.models.Project;
+import api.models.User;
+import api.requests.unchecked.UncheckedBase;
+import api.spec.Specifications;
+import api.stub.TeamCityStub;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+@State(Scope.Benchmark)
+public class SpecificationsBenchmark {
+    private TeamCityStub stub;
+    private User user;
+    private UncheckedBase projectRequest;
+    private String projectId;
+
+    @Setup
+    public void setUp() {
+        stub = TeamCityStub.start(null);
+        // Все спецификации строятся от host, поэтому запросы уходят в локальную заглушку TeamCity
+        System.setProperty("host", stub.getHost());
+        user = TestDataGenerator.generate(User.class);
+        projectRequest = new UncheckedBase(Specifications.superUserSpec(), Endpoint.PROJECTS);
+        var project = TestDataGenerator.generate(Project.class);
+        projectRequest.create(project);
+        projectId = project.getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        stub.close();
+        System.clearProperty("host");
+    }
+
+    @Benchmark
+    public RequestSpecification superUserSpec() {
+        return Specifications.superUserSpec();
+    }
+
+    @Benchmark
+    public RequestSpecification authSpec() {
+        return Specifications.authSpec(user);
+    }
+
+    @Benchmark
+    public Response readProject() {
+        return projectRequest.read(projectId);
+    }
+}
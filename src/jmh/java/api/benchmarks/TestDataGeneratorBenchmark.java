@@ -0,0 +1,60 @@
+package api.benchmarks;
+
+import api.data.TestDataGenerator;
+import api.models.BaseModel;
+import api.models.BuildType;
+import api.models.Project;
+import api.models.TestData;
+import api.models.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class TestDataGeneratorBenchmark {
+    private List<BaseModel> generatedModels;
+
+    @Setup
+    public void setUp() {
+        generatedModels = List.of(TestDataGenerator.generate(Project.class));
+    }
+
+    @Benchmark
+    public Project generateProject() {
+        return TestDataGenerator.generate(Project.class);
+    }
+
+    @Benchmark
+    public BuildType generateBuildTypeWithGeneratedProject() {
+        return TestDataGenerator.generate(generatedModels, BuildType.class);
+    }
+
+    @Benchmark
+    public User generateUser() {
+        return TestDataGenerator.generate(User.class);
+    }
+
+    // Базовая линия: та же генерация через рефлексию на каждый вызов, без кэша GenerationPlan
+    @Benchmark
+    public Project generateProjectReflective() {
+        return ReflectiveTestDataGenerator.generate(Project.class);
+    }
+
+    @Benchmark
+    public BuildType generateBuildTypeWithGeneratedProjectReflective() {
+        return ReflectiveTestDataGenerator.generate(generatedModels, BuildType.class);
+    }
+
+    @Benchmark
+    public User generateUserReflective() {
+        return ReflectiveTestDataGenerator.generate(User.class);
+    }
+
+    @Benchmark
+    public TestData generateTestData() {
+        return TestData.generate();
+    }
+}
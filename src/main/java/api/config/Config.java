@@ -6,19 +6,20 @@ import java.util.Properties;
 
 public class Config {
     private static final String CONFIG_PROPERTIES = "config.properties";
-    private static Config config;
-    private Properties properties;
+    private final Properties properties;
 
     private Config() {
         properties = new Properties();
         loadProperties(CONFIG_PROPERTIES);
     }
 
+    // Ленивая и потокобезопасная инициализация через holder-класс
+    private static final class Holder {
+        private static final Config CONFIG = new Config();
+    }
+
     public static Config getConfig() {
-        if (config == null) {
-            config = new Config();
-        }
-        return config;
+        return Holder.CONFIG;
     }
 
     private void loadProperties(String fileName) {
@@ -33,7 +34,13 @@ public class Config {
         }
     }
 
+    // Системное свойство (-Dkey=value) имеет приоритет над значением из config.properties
     public static String getProperty(String key) {
-        return getConfig().properties.getProperty(key);
+        return System.getProperty(key, getConfig().properties.getProperty(key));
+    }
+
+    public static int getIntProperty(String key, int defaultValue) {
+        var value = getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
     }
 }
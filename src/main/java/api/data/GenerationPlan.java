@@ -0,0 +1,111 @@
+package api.data;
+
+import api.annotations.Optional;
+import api.annotations.Parameterizable;
+import api.annotations.Random;
+import api.models.BaseModel;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * План генерации класса: порядок полей, разобранные аннотации, generic type списков и MethodHandle для конструктора
+ * и сеттеров полей. Строится один раз на класс, после этого генерация обходится без рефлексии.
+ */
+final class GenerationPlan {
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final ClassValue<GenerationPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected GenerationPlan computeValue(Class<?> type) {
+            return new GenerationPlan(type);
+        }
+    };
+
+    private final MethodHandle constructor;
+    private final List<FieldPlan> fields;
+
+    private GenerationPlan(Class<?> type) {
+        try {
+            var lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            constructor = lookup.findConstructor(type, MethodType.methodType(void.class)).asType(CONSTRUCTOR_TYPE);
+            var fieldPlans = new ArrayList<FieldPlan>();
+            for (var field : type.getDeclaredFields()) {
+                if (!field.isAnnotationPresent(Optional.class) && !Modifier.isStatic(field.getModifiers())
+                        && !field.isSynthetic()) {
+                    fieldPlans.add(new FieldPlan(field.getName(), field.getType(),
+                            field.isAnnotationPresent(Parameterizable.class), resolveKind(field), resolveModelClass(field),
+                            lookup.unreflectSetter(field).asType(SETTER_TYPE)));
+                }
+            }
+            fields = List.copyOf(fieldPlans);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("Cannot generate test data", e);
+        }
+    }
+
+    static GenerationPlan of(Class<?> type) {
+        return PLANS.get(type);
+    }
+
+    List<FieldPlan> getFields() {
+        return fields;
+    }
+
+    Object newInstance() {
+        try {
+            return constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot generate test data", e);
+        }
+    }
+
+    private static FieldKind resolveKind(Field field) {
+        if (field.isAnnotationPresent(Random.class)) {
+            return String.class.equals(field.getType()) ? FieldKind.RANDOM_STRING : FieldKind.SKIPPED;
+        } else if (BaseModel.class.isAssignableFrom(field.getType())) {
+            return FieldKind.MODEL;
+        } else if (List.class.isAssignableFrom(field.getType()) && resolveModelClass(field) != null) {
+            return FieldKind.MODEL_LIST;
+        }
+        return FieldKind.SKIPPED;
+    }
+
+    private static Class<? extends BaseModel> resolveModelClass(Field field) {
+        if (BaseModel.class.isAssignableFrom(field.getType())) {
+            return field.getType().asSubclass(BaseModel.class);
+        }
+        if (List.class.isAssignableFrom(field.getType()) && field.getGenericType() instanceof ParameterizedType pt
+                && pt.getActualTypeArguments()[0] instanceof Class<?> typeClass
+                && BaseModel.class.isAssignableFrom(typeClass)) {
+            return typeClass.asSubclass(BaseModel.class);
+        }
+        return null;
+    }
+
+    enum FieldKind {
+        RANDOM_STRING,
+        MODEL,
+        MODEL_LIST,
+        SKIPPED
+    }
+
+    record FieldPlan(String name, Class<?> type, boolean parameterizable, FieldKind kind,
+                     Class<? extends BaseModel> modelClass, MethodHandle setter) {
+
+        void set(Object instance, Object value) {
+            try {
+                setter.invokeExact(instance, value);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot generate test data", e);
+            }
+        }
+    }
+}
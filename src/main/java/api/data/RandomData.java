@@ -1,20 +1,232 @@
 package api.data;
 
-import org.apache.commons.lang3.RandomStringUtils;
+import api.config.Config;
+import api.metrics.RunReport;
+import api.spec.HttpArchive;
 
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Генерация случайных строк для тестовых данных.
+ * <p>
+ * Строки берутся из последовательностей по ключам: ключ - тест, открывший область {@link #openScope(String)},
+ * а вне области - имя потока. Каждому ключу по seed (randomSeed в конфиге или -DrandomSeed=...) и хэшу ключа
+ * выделяется свой слот, строка - номер в последовательности ключа вместе со слотом, перемешанный обратимой функцией
+ * и записанный в первые MAX_LENGTH случайных символов. Поэтому строки уникальны в рамках прогона без хранения
+ * выданных значений, а имена, которые генерирует тест, зависят только от seed и самого теста, а не от того,
+ * какие тесты шли параллельно. Остальные символы длинных строк берутся из SplittableRandom с seed из того же
+ * номера. Seed записывается в отчет прогона {@link RunReport}.
+ * <p>
+ * После префикса test_ идет пространство имен процесса (testNamespace, по умолчанию из номера шарда и форка Gradle),
+ * поэтому параллельные форки и агенты CI с одинаковым seed не создают сущности с одинаковыми именами.
+ * <p>
+ * При воспроизведении архива HTTP-обменов (httpArchiveMode=replay) seed и пространство имен по умолчанию берутся
+ * из архива, чтобы генерировались те же имена, что и при записи.
+ */
 public final class RandomData {
     private static final String TEST_PREFIX = "test_";
     private static final int MAX_LENGTH = 10;
+    private static final char[] ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    private static final HttpArchive.RunInfo REPLAYED_RUN = HttpArchive.replayRunInfo();
+    private static final String NAMESPACE = resolveNamespace();
+    private static final String PREFIX = NAMESPACE.isEmpty() ? TEST_PREFIX : TEST_PREFIX + NAMESPACE + "_";
+    private static final boolean SEED_FIXED = isSeedConfigured() || HttpArchive.mode() != HttpArchive.Mode.OFF;
+    private static final long SEED = resolveSeed();
+    private static final Sequences SEQUENCES = new Sequences(SEED);
+    private static final ThreadLocal<Sequences.Sequence> CURRENT = ThreadLocal.withInitial(
+            () -> SEQUENCES.get("thread:" + Thread.currentThread().getName()));
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[64]);
+
+    static {
+        RunReport.global().put("randomSeed", SEED);
+        RunReport.global().put("testNamespace", NAMESPACE);
+    }
+
+    private RandomData() {
+    }
 
     public static String getString() {
-        return TEST_PREFIX + RandomStringUtils.randomAlphabetic(MAX_LENGTH);
+        return random(PREFIX, MAX_LENGTH);
     }
 
     public static String getString(String prefix) {
-        return TEST_PREFIX + prefix + "_"  + RandomStringUtils.randomAlphabetic(MAX_LENGTH);
+        return random(PREFIX + prefix + "_", MAX_LENGTH);
     }
 
     public static String getString(int length) {
-        return TEST_PREFIX + RandomStringUtils.randomAlphabetic(Math.max(length - TEST_PREFIX.length(), MAX_LENGTH));
+        return random(PREFIX, Math.max(length - PREFIX.length(), MAX_LENGTH));
+    }
+
+    // Строка из последовательности key независимо от области потока: для сущностей прогона, а не отдельного теста
+    public static String getScopedString(String key, String prefix) {
+        return random(SEQUENCES.get(key), PREFIX + prefix + "_", MAX_LENGTH);
+    }
+
+    public static long getSeed() {
+        return SEED;
+    }
+
+    public static String getNamespace() {
+        return NAMESPACE;
+    }
+
+    // Seed задан явно или прогон записывается/воспроизводится: имена тестов должны повторяться между прогонами
+    public static boolean isSeedFixed() {
+        return SEED_FIXED;
+    }
+
+    // Строки потока до closeScope() берутся из последовательности key. Повторный запуск теста с тем же ключом
+    // продолжает его последовательность
+    public static void openScope(String key) {
+        CURRENT.set(SEQUENCES.get(key));
+    }
+
+    public static void closeScope() {
+        CURRENT.remove();
+    }
+
+    private static String random(String prefix, int randomLength) {
+        return random(CURRENT.get(), prefix, randomLength);
+    }
+
+    private static String random(Sequences.Sequence sequence, String prefix, int randomLength) {
+        var length = prefix.length() + randomLength;
+        var buffer = BUFFER.get();
+        if (buffer.length < length) {
+            buffer = new char[length];
+            BUFFER.set(buffer);
+        }
+        prefix.getChars(0, prefix.length(), buffer, 0);
+        fill(sequence.next(), SEED, buffer, prefix.length(), length);
+        return new String(buffer, 0, length);
+    }
+
+    static void fill(long value, long seed, char[] buffer, int from, int to) {
+        var end = from + MAX_LENGTH;
+        var random = end < to ? new SplittableRandom(mix(seed ^ mix(value))) : null;
+        for (var i = from; i < end; i++) {
+            buffer[i] = ALPHABET[(int) (value % ALPHABET.length)];
+            value /= ALPHABET.length;
+        }
+        for (var i = end; i < to; i++) {
+            buffer[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+    }
+
+    // Явный testNamespace, пространство имен записанного прогона или s<шард> (при shardCount > 1) и w<форк Gradle>
+    private static String resolveNamespace() {
+        var configuredNamespace = Config.getProperty("testNamespace");
+        if (configuredNamespace != null && !configuredNamespace.isBlank()) {
+            return configuredNamespace.trim();
+        }
+        if (REPLAYED_RUN != null) {
+            return REPLAYED_RUN.namespace();
+        }
+        var namespace = new StringBuilder();
+        if (Config.getIntProperty("shardCount", 1) > 1) {
+            namespace.append('s').append(Config.getIntProperty("shard", 0));
+        }
+        var worker = System.getProperty("org.gradle.test.worker");
+        if (worker != null) {
+            namespace.append('w').append(worker);
+        }
+        return namespace.toString();
+    }
+
+    private static boolean isSeedConfigured() {
+        var configuredSeed = Config.getProperty("randomSeed");
+        return configuredSeed != null && !configuredSeed.isBlank();
+    }
+
+    private static long resolveSeed() {
+        return isSeedConfigured() ? Long.parseLong(Config.getProperty("randomSeed").trim())
+                : REPLAYED_RUN != null ? REPLAYED_RUN.seed()
+                : System.nanoTime() ^ mix(System.currentTimeMillis());
+    }
+
+    // Финализатор SplitMix64, чтобы близкие значения давали непохожие seed'ы
+    static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Последовательности прогона по ключам. Номер строки - 32 бита слота ключа и 24 бита номера в последовательности,
+     * 52^10 > 2^56, поэтому перемешанный номер помещается в MAX_LENGTH символов без коллизий. Слот зависит только
+     * от seed и ключа; если он уже занят другим ключом (совпадение хэшей), берется следующий кандидат. Исчерпав
+     * 2^24 номеров, последовательность переходит на новый слот.
+     */
+    static final class Sequences {
+        private static final int COUNTER_BITS = 24;
+        private static final int COUNTER_LIMIT = 1 << COUNTER_BITS;
+        private static final long INDEX_MASK = (1L << 56) - 1;
+
+        private final long seed;
+        private final Map<String, Sequence> sequences = new ConcurrentHashMap<>();
+        private final Map<Integer, String> slotOwners = new ConcurrentHashMap<>();
+
+        Sequences(long seed) {
+            this.seed = seed;
+        }
+
+        Sequence get(String key) {
+            return sequences.computeIfAbsent(key, Sequence::new);
+        }
+
+        private int allocate(String key) {
+            var hash = hash(key);
+            for (var attempt = 0L; ; attempt++) {
+                var slot = (int) mix(seed ^ mix(hash + attempt));
+                var owner = slotOwners.putIfAbsent(slot, key);
+                if (owner == null || owner.equals(key)) {
+                    return slot;
+                }
+            }
+        }
+
+        // FNV-1a: 64-битный хэш, чтобы совпадения слотов разных ключей были редкими
+        private static long hash(String key) {
+            var hash = 0xcbf29ce484222325L;
+            for (var i = 0; i < key.length(); i++) {
+                hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+            }
+            return hash;
+        }
+
+        // Обратимое перемешивание 56-битного номера: xorshift и умножение на нечетное число по модулю 2^56 - биекции
+        private static long permute(long value) {
+            value &= INDEX_MASK;
+            value ^= value >>> 29;
+            value = value * 0xbf58476d1ce4e5b9L & INDEX_MASK;
+            value ^= value >>> 27;
+            value = value * 0x94d049bb133111ebL & INDEX_MASK;
+            return value ^ (value >>> 31);
+        }
+
+        final class Sequence {
+            private final String key;
+            private int segment;
+            private int slot;
+            private int counter;
+
+            private Sequence(String key) {
+                this.key = key;
+                this.slot = allocate(key);
+            }
+
+            // Следующий номер последовательности; \0 в ключе следующего сегмента не встречается в ключах тестов
+            synchronized long next() {
+                if (counter == COUNTER_LIMIT) {
+                    segment++;
+                    slot = allocate(key + '\0' + segment);
+                    counter = 0;
+                }
+                return permute(Integer.toUnsignedLong(slot) << COUNTER_BITS | counter++);
+            }
+        }
     }
 }
@@ -1,13 +1,10 @@
 package api.data;
 
-import api.annotations.Optional;
-import api.annotations.Parameterizable;
-import api.annotations.Random;
+import api.generators.Sandbox;
 import api.models.BaseModel;
+import api.models.Project;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.ParameterizedType;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -40,46 +37,74 @@ public final class TestDataGenerator {
      * применяется только для пунктов 3 и 4. Например, если был сгенерирован NewProjectDescription, то передав его
      * параметром generatedModels при генерации BuildType, он будет переиспользоваться при установке
      * поля NewProjectDescription project, вместо генерации нового.
+     * <p>
+     * Поля класса, их аннотации и сеттеры разбираются один раз и кэшируются в {@link GenerationPlan}.
+     * <p>
+     * В режиме sandbox проекту без родителя назначается корневой проект прогона ({@link Sandbox}).
      */
 
     public static <T extends BaseModel> T generate(List<BaseModel> generatedModels, Class<T> generatorClass,
                                                    Object... parameters) {
-        try {
-            var instance = generatorClass.getDeclaredConstructor().newInstance();
-            for (var field : generatorClass.getDeclaredFields()) {
-                field.setAccessible(true);
-                if (!field.isAnnotationPresent(Optional.class)) {
-                    var generatedClass = generatedModels.stream().filter(m
-                            -> m.getClass().equals(field.getType())).findFirst();
-                    if (field.isAnnotationPresent(Parameterizable.class) && parameters.length > 0) {
-                        field.set(instance, parameters[0]);
-                        parameters = Arrays.copyOfRange(parameters, 1, parameters.length);
-                    } else if (field.isAnnotationPresent(Random.class)) {
-                        if (String.class.equals(field.getType())) {
-                            field.set(instance, RandomData.getString(field.getName()));
-                        }
-                    } else if (BaseModel.class.isAssignableFrom(field.getType())) {
-                        var finalParameters = parameters;
-                        field.set(instance, generatedClass.orElseGet(() -> generate(
-                                generatedModels, field.getType().asSubclass(BaseModel.class), finalParameters)));
-                    } else if (List.class.isAssignableFrom(field.getType())) {
-                        if (field.getGenericType() instanceof ParameterizedType pt) {
-                            var typeClass = (Class<?>) pt.getActualTypeArguments()[0];
-                            if (BaseModel.class.isAssignableFrom(typeClass)) {
-                                var finalParameters = parameters;
-                                field.set(instance, generatedClass.map(List::of).orElseGet(() -> List.of(generate(
-                                        generatedModels, typeClass.asSubclass(BaseModel.class), finalParameters))));
-                            }
-                        }
-                    }
+        return generatorClass.cast(generate(generatedModels, GenerationPlan.of(generatorClass), parameters, 0));
+    }
+
+    // Вместо копирования массива параметров передается индекс первого еще не использованного параметра
+    private static Object generate(List<BaseModel> generatedModels, GenerationPlan plan, Object[] parameters,
+                                   int parameterIndex) {
+        var instance = plan.newInstance();
+        for (var field : plan.getFields()) {
+            if (field.parameterizable() && parameterIndex < parameters.length) {
+                field.set(instance, parameters[parameterIndex++]);
+                continue;
+            }
+            switch (field.kind()) {
+                case RANDOM_STRING -> field.set(instance, RandomData.getString(field.name()));
+                case MODEL -> {
+                    var generatedModel = findGeneratedModel(generatedModels, field.type());
+                    field.set(instance, generatedModel != null ? generatedModel : generate(
+                            generatedModels, GenerationPlan.of(field.modelClass()), parameters, parameterIndex));
                 }
-                field.setAccessible(false);
+                case MODEL_LIST -> {
+                    var generatedModel = findGeneratedModel(generatedModels, field.type());
+                    field.set(instance, List.of(generatedModel != null ? generatedModel : generate(
+                            generatedModels, GenerationPlan.of(field.modelClass()), parameters, parameterIndex)));
+                }
+                case SKIPPED -> {
+                }
+            }
+        }
+        if (instance instanceof Project project) {
+            Sandbox.global().applyDefaultParent(project);
+        }
+        return instance;
+    }
+
+    private static BaseModel findGeneratedModel(List<BaseModel> generatedModels, Class<?> type) {
+        for (var model : generatedModels) {
+            if (model.getClass().equals(type)) {
+                return model;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Генерация набора связанных сущностей (например, TestData): поля-наследники BaseModel генерируются по порядку,
+     * и каждое следующее получает уже сгенерированные как generatedModels. Поля и сеттеры берутся из того же
+     * кэшированного {@link GenerationPlan}, что и при генерации одной сущности.
+     */
+    public static <T> T generateLinked(Class<T> containerClass) {
+        var plan = GenerationPlan.of(containerClass);
+        var instance = plan.newInstance();
+        var generatedModels = new ArrayList<BaseModel>();
+        for (var field : plan.getFields()) {
+            if (field.kind() == GenerationPlan.FieldKind.MODEL) {
+                var generatedModel = generate(generatedModels, field.modelClass());
+                field.set(instance, generatedModel);
+                generatedModels.add(generatedModel);
             }
-            return instance;
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException
-                 | NoSuchMethodException e) {
-            throw new IllegalStateException("Cannot generate test data", e);
         }
+        return containerClass.cast(instance);
     }
 
     // Метод, чтобы сгенерировать одну сущность. Передает пустой параметр generatedModels
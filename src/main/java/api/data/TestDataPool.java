@@ -0,0 +1,111 @@
+package api.data;
+
+import api.config.Config;
+import api.models.TestData;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пул заранее сгенерированных TestData.
+ * <p>
+ * Экземпляры генерируются в фоновом потоке, take() только забирает готовый экземпляр из очереди. Когда в очереди
+ * остается не больше lowWaterMark экземпляров, запускается дозаполнение до capacity. Если очередь пуста,
+ * экземпляр генерируется синхронно и это учитывается как промах. Размеры задаются testDataPoolCapacity
+ * и testDataPoolLowWaterMark, capacity 0 отключает пул.
+ * <p>
+ * Какой тест получит экземпляр из очереди, зависит от порядка выполнения, поэтому при фиксированном seed
+ * ({@link RandomData#isSeedFixed()}) пул из конфига отключен: данные генерируются в потоке теста и повторяются
+ * между прогонами.
+ */
+public class TestDataPool implements AutoCloseable {
+    private static final int DEFAULT_CAPACITY = 32;
+
+    private final int capacity;
+    private final int lowWaterMark;
+    private final BlockingQueue<TestData> queue;
+    private final ExecutorService refillExecutor;
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder generationNanos = new LongAdder();
+
+    public TestDataPool(int capacity, int lowWaterMark) {
+        this.capacity = Math.max(0, capacity);
+        this.lowWaterMark = Math.min(Math.max(0, lowWaterMark), Math.max(0, this.capacity - 1));
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, this.capacity));
+        this.refillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "test-data-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refillIfNeeded();
+    }
+
+    public static TestDataPool fromConfig() {
+        var capacity = RandomData.isSeedFixed() ? 0 : Config.getIntProperty("testDataPoolCapacity", DEFAULT_CAPACITY);
+        return new TestDataPool(capacity, Config.getIntProperty("testDataPoolLowWaterMark", capacity / 4));
+    }
+
+    public TestData take() {
+        var testData = queue.poll();
+        if (testData != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            testData = TestData.generate();
+        }
+        refillIfNeeded();
+        return testData;
+    }
+
+    public Metrics getMetrics() {
+        var generatedCount = generated.sum();
+        var seconds = generationNanos.sum() / 1e9;
+        return new Metrics(hits.sum(), misses.sum(), generatedCount, seconds > 0 ? generatedCount / seconds : 0,
+                queue.size());
+    }
+
+    @Override
+    public void close() {
+        refillExecutor.shutdownNow();
+        queue.clear();
+    }
+
+    private void refillIfNeeded() {
+        if (capacity > 0 && queue.size() <= lowWaterMark && !refillExecutor.isShutdown()
+                && refilling.compareAndSet(false, true)) {
+            refillExecutor.execute(this::refill);
+        }
+    }
+
+    private void refill() {
+        try {
+            while (queue.size() < capacity && !Thread.currentThread().isInterrupted()) {
+                var start = System.nanoTime();
+                var testData = TestData.generate();
+                generationNanos.add(System.nanoTime() - start);
+                generated.increment();
+                if (!queue.offer(testData)) {
+                    break;
+                }
+            }
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+    public record Metrics(long hits, long misses, long generated, double generatedPerSecond, int available) {
+
+        @Override
+        public String toString() {
+            return "TestDataPool: hits %d, misses %d, generated %d (%.0f/s), available %d"
+                    .formatted(hits, misses, generated, generatedPerSecond, available);
+        }
+    }
+}
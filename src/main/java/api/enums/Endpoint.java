@@ -1,6 +1,7 @@
 package api.enums;
 
 import api.models.BaseModel;
+import api.models.Build;
 import api.models.BuildType;
 import api.models.Project;
 import api.models.User;
@@ -10,10 +11,37 @@ import lombok.Getter;
 @AllArgsConstructor
 @Getter
 public enum Endpoint {
-    BUILD_TYPES("/app/rest/buildTypes", BuildType.class),
-    PROJECTS("/app/rest/projects", Project.class),
-    USERS("/app/rest/users", User.class);
+    BUILD_TYPES("/app/rest/buildTypes", BuildType.class, "buildType"),
+    PROJECTS("/app/rest/projects", Project.class, "project"),
+    USERS("/app/rest/users", User.class, "user"),
+    // Запуск сборки и отмена ее в очереди; fromModelClass для Build возвращает очередь
+    BUILD_QUEUE("/app/rest/buildQueue", Build.class, "build"),
+    // Сборки в любом состоянии: чтение статуса и удаление из истории
+    BUILDS("/app/rest/builds", Build.class, "build");
 
     private final String url;
     private final Class<? extends BaseModel> modelClass;
+    // Поле ответа на запрос коллекции, в котором лежит массив сущностей
+    private final String itemKey;
+
+    public static Endpoint fromModelClass(Class<? extends BaseModel> modelClass) {
+        for (var endpoint : values()) {
+            if (endpoint.modelClass.equals(modelClass)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("There is no endpoint for model " + modelClass.getSimpleName());
+    }
+
+    // Определяет Endpoint по пути или URI запроса, null - если путь не относится ни к одному Endpoint
+    public static Endpoint fromPath(String path) {
+        for (var endpoint : values()) {
+            var index = path.indexOf(endpoint.url);
+            var end = index + endpoint.url.length();
+            if (index >= 0 && (end == path.length() || path.charAt(end) == '/' || path.charAt(end) == '?')) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
 }
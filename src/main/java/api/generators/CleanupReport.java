@@ -0,0 +1,67 @@
+package api.generators;
+
+import api.enums.Endpoint;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CleanupReport {
+    private final EnumMap<Endpoint, EndpointReport> reports = new EnumMap<>(Endpoint.class);
+
+    EndpointReport forEndpoint(Endpoint endpoint) {
+        return reports.computeIfAbsent(endpoint, key -> new EndpointReport());
+    }
+
+    public Map<Endpoint, EndpointReport> getReports() {
+        return Collections.unmodifiableMap(reports);
+    }
+
+    public boolean hasFailures() {
+        return reports.values().stream().anyMatch(report -> !report.getFailures().isEmpty());
+    }
+
+    @Override
+    public String toString() {
+        var builder = new StringBuilder("Cleanup report:");
+        reports.forEach((endpoint, report) -> builder.append(System.lineSeparator())
+                .append("  %s: deleted %d, failed %d in %d ms".formatted(endpoint, report.getDeleted(),
+                        report.getFailures().size(), report.getDuration().toMillis())));
+        reports.forEach((endpoint, report) -> report.getFailures().forEach((id, reason) ->
+                builder.append(System.lineSeparator()).append("  %s %s: %s".formatted(endpoint, id, reason))));
+        return builder.toString();
+    }
+
+    public static class EndpointReport {
+        private final AtomicInteger deleted = new AtomicInteger();
+        private final Map<String, String> failures = Collections.synchronizedMap(new LinkedHashMap<>());
+        private volatile Duration duration = Duration.ZERO;
+
+        void addDeleted() {
+            deleted.incrementAndGet();
+        }
+
+        void addFailure(String id, String reason) {
+            failures.put(id, reason);
+        }
+
+        void addDuration(Duration phaseDuration) {
+            duration = duration.plus(phaseDuration);
+        }
+
+        public int getDeleted() {
+            return deleted.get();
+        }
+
+        public Map<String, String> getFailures() {
+            return Collections.unmodifiableMap(failures);
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+    }
+}
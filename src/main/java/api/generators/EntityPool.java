@@ -0,0 +1,187 @@
+package api.generators;
+
+import api.config.Config;
+import api.data.TestDataGenerator;
+import api.enums.Endpoint;
+import api.models.BaseModel;
+import api.models.Project;
+import api.models.User;
+import api.requests.unchecked.UncheckedBase;
+import api.spec.ModelMapper;
+import api.spec.Specifications;
+import io.restassured.response.Response;
+import org.apache.http.HttpStatus;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiPredicate;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Пул заранее созданных на сервере сущностей, которые выдаются тестам в аренду.
+ * <p>
+ * При создании пул параллельно (не более entityPoolConcurrency запросов) создает entityPoolSize сущностей.
+ * lease() выдает копию свободной сущности, а если свободных нет - создает новую. release() возвращает сущность
+ * в исходное состояние и снова делает ее свободной, а если вернуть не удалось - удаляет ее. Сущности пула
+ * хранятся в собственном хранилище и удаляются в close(), поэтому не попадают в очистку тестов. Исключение -
+ * сущность, которую release() не смог ни вернуть, ни удалить: она передается в текущее хранилище теста.
+ * <p>
+ * Потоки создания - демоны и не держат JVM. close() не прерывает уже начатое создание: новые сущности больше
+ * не создаются, начатые запросы дожидаются завершения (не дольше CLOSE_TIMEOUT_SECONDS), и только потом удаляется
+ * все созданное, поэтому сущность, созданная на сервере во время закрытия, тоже удаляется.
+ */
+public class EntityPool<T extends BaseModel> implements AutoCloseable {
+    private static final int DEFAULT_SIZE = 8;
+    private static final int DEFAULT_CONCURRENCY = 4;
+    private static final int CLOSE_TIMEOUT_SECONDS = 60;
+
+    private final Endpoint endpoint;
+    private final Class<T> modelClass;
+    private final Supplier<T> generator;
+    private final BinaryOperator<T> merger;
+    private final BiPredicate<UncheckedBase, T> resetter;
+    private final UncheckedBase request;
+    private final TestDataStorage storage = new TestDataStorage();
+    private final BlockingQueue<T> available = new LinkedBlockingQueue<>();
+    private final Map<String, T> leased = new ConcurrentHashMap<>();
+    private final ExecutorService provisioner;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * @param generator генерирует модель для создания
+     * @param merger    собирает модель сущности из сгенерированной и вернувшейся от сервера
+     *                  (например, чтобы сохранить пароль пользователя, которого нет в ответе)
+     * @param resetter  возвращает сущность в исходное состояние, false - если сущность нельзя переиспользовать
+     */
+    public EntityPool(Endpoint endpoint, Class<T> modelClass, Supplier<T> generator, BinaryOperator<T> merger,
+                      BiPredicate<UncheckedBase, T> resetter, int size, int concurrency) {
+        this.endpoint = endpoint;
+        this.modelClass = modelClass;
+        this.generator = generator;
+        this.merger = merger;
+        this.resetter = resetter;
+        this.request = new UncheckedBase(Specifications.superUserSpec(), endpoint);
+        this.provisioner = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            var thread = new Thread(runnable, "entity-pool-" + endpoint.name().toLowerCase());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (var i = 0; i < size; i++) {
+            provisioner.execute(() -> {
+                if (closed.get()) {
+                    return;
+                }
+                try {
+                    available.offer(provision());
+                } catch (RuntimeException e) {
+                    System.err.println("Cannot provision pooled entity: " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    // Пользователи с ролью из генератора, при возврате данные пользователя перезаписываются исходными
+    public static EntityPool<User> users() {
+        return new EntityPool<>(Endpoint.USERS, User.class, () -> TestDataGenerator.generate(User.class),
+                (generated, created) -> {
+                    created.setPassword(generated.getPassword());
+                    return created;
+                },
+                (request, user) -> request.update(user.getId(), user).getStatusCode() == HttpStatus.SC_OK,
+                Config.getIntProperty("entityPoolSize", DEFAULT_SIZE),
+                Config.getIntProperty("entityPoolConcurrency", DEFAULT_CONCURRENCY));
+    }
+
+    // Проекты, которые тест вернул без изменений: имя и описание перезаписываются исходными, а проект с оставшимися
+    // билд-конфигурациями (тест вернул его раньше, чем очистил свои сущности) не переиспользуется и удаляется
+    public static EntityPool<Project> projects() {
+        return new EntityPool<>(Endpoint.PROJECTS, Project.class, () -> TestDataGenerator.generate(Project.class),
+                (generated, created) -> created,
+                (request, project) -> request.update(project.getId(), project).getStatusCode() == HttpStatus.SC_OK
+                        && hasNoBuildTypes(request.read(project.getId())),
+                Config.getIntProperty("entityPoolSize", DEFAULT_SIZE),
+                Config.getIntProperty("entityPoolConcurrency", DEFAULT_CONCURRENCY));
+    }
+
+    public T lease() {
+        var entity = available.poll();
+        if (entity == null) {
+            entity = provision();
+        }
+        leased.put(TestDataStorage.getEntityIdOrLocator(entity), entity);
+        return copy(entity);
+    }
+
+    public void release(T entity) {
+        var pooledEntity = leased.remove(TestDataStorage.getEntityIdOrLocator(entity));
+        if (pooledEntity == null) {
+            return;
+        }
+        var reset = false;
+        try {
+            reset = resetter.test(request, pooledEntity);
+        } catch (RuntimeException e) {
+            System.err.println("Cannot reset pooled entity: " + e.getMessage());
+        }
+        if (reset) {
+            available.offer(pooledEntity);
+            return;
+        }
+        var id = TestDataStorage.getEntityIdOrLocator(pooledEntity);
+        var statusCode = request.delete(id).getStatusCode();
+        if (statusCode >= HttpStatus.SC_BAD_REQUEST && statusCode != HttpStatus.SC_NOT_FOUND) {
+            // Неудаленная сущность передается в текущее хранилище теста, чтобы ее удалила и учла в отчете очистка
+            System.err.println("Cannot delete pooled entity %s %s: HTTP %d".formatted(endpoint, id, statusCode));
+            TestDataStorage.getStorage().addCreatedEntity(endpoint, pooledEntity);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed.set(true);
+        provisioner.shutdown();
+        try {
+            if (!provisioner.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("Pooled %s are still being created after %d s".formatted(endpoint,
+                        CLOSE_TIMEOUT_SECONDS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        available.clear();
+        leased.clear();
+        storage.deleteCreatedEntities();
+    }
+
+    private T provision() {
+        var generated = generator.get();
+        var response = request.create(generated);
+        if (response.getStatusCode() != HttpStatus.SC_OK) {
+            throw new IllegalStateException("Cannot create pooled entity in %s: HTTP %d %s"
+                    .formatted(endpoint, response.getStatusCode(), response.asString()));
+        }
+        var created = merger.apply(generated, response.as(modelClass));
+        storage.addCreatedEntity(endpoint, created);
+        return created;
+    }
+
+    private static boolean hasNoBuildTypes(Response response) {
+        if (response.getStatusCode() != HttpStatus.SC_OK) {
+            return false;
+        }
+        var buildTypes = response.as(Project.class).getBuildTypes();
+        return buildTypes == null || buildTypes.getCount() == 0;
+    }
+
+    // Тест получает копию, чтобы его изменения модели не повлияли на исходное состояние в пуле
+    private T copy(T entity) {
+        return ModelMapper.objectMapper().convertValue(entity, modelClass);
+    }
+}
@@ -0,0 +1,150 @@
+package api.generators;
+
+import api.config.Config;
+import api.data.RandomData;
+import api.enums.Endpoint;
+import api.metrics.RunReport;
+import api.models.BaseModel;
+import api.models.ParentProject;
+import api.models.Project;
+import api.requests.Locators;
+import api.requests.unchecked.UncheckedBase;
+import api.spec.Specifications;
+import io.restassured.specification.RequestSpecification;
+import org.apache.http.HttpStatus;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Корневой проект прогона (sandbox=true).
+ * <p>
+ * Один корневой проект на JVM (то есть на прогон, шард или форк): TestDataGenerator назначает его родителем каждому
+ * сгенерированному проекту без родителя, а сам проект создается на сервере перед созданием первого проекта внутри
+ * него. Модель, которую передали в запрос, не меняется: проект, собранный вручную без родителя, создается в _Root
+ * и удаляется по отдельности. Проекты внутри корневого проекта, все билд-конфигурации и их сборки не удаляются
+ * по одной: в конце прогона корневой проект удаляется одним запросом вместе с поддеревом (delete()). После удаления
+ * корневой проект не создается заново: проект внутри него, созданный после конца прогона (например, фоновым пулом),
+ * завершается ошибкой, а не оставляет на сервере новый корневой проект.
+ */
+public final class Sandbox {
+    private static final Set<Endpoint> COVERED_ENDPOINTS = Set.of(Endpoint.BUILD_TYPES, Endpoint.BUILD_QUEUE,
+            Endpoint.BUILDS);
+    private static final String ROOT_PROJECT_ID = "_Root";
+
+    private final String projectId;
+    private final Supplier<RequestSpecification> spec;
+    private boolean created;
+    private boolean deleted;
+
+    // projectId null - режим выключен
+    Sandbox(String projectId, Supplier<RequestSpecification> spec) {
+        this.projectId = projectId;
+        this.spec = spec;
+    }
+
+    // Ленивая инициализация через holder-класс; спецификация строится только при создании и удалении проекта
+    private static final class Holder {
+        private static final Sandbox SANDBOX = createGlobal();
+
+        private static Sandbox createGlobal() {
+            if (!Boolean.parseBoolean(Config.getProperty("sandbox"))) {
+                return new Sandbox(null, Specifications::superUserSpec);
+            }
+            var sandbox = new Sandbox(RandomData.getScopedString("run:sandbox", "sandbox"),
+                    Specifications::superUserSpec);
+            // Страховка для прогонов, которые завершились без afterSuite
+            Runtime.getRuntime().addShutdownHook(new Thread(sandbox::delete, "sandbox-cleanup"));
+            return sandbox;
+        }
+    }
+
+    public static Sandbox global() {
+        return Holder.SANDBOX;
+    }
+
+    public boolean isEnabled() {
+        return projectId != null;
+    }
+
+    public String getProjectId() {
+        return projectId;
+    }
+
+    // Билд-конфигурации и сборки удаляются вместе с проектами и не требуют отдельного удаления
+    public boolean covers(Endpoint endpoint) {
+        return isEnabled() && COVERED_ENDPOINTS.contains(endpoint);
+    }
+
+    // Проект внутри корневого проекта по цепочке родителей projectParents (id проекта -> id родителя)
+    public boolean containsProject(String id, Map<String, String> projectParents) {
+        if (!isEnabled()) {
+            return false;
+        }
+        var parent = projectParents.get(id);
+        for (var depth = 0; parent != null && depth <= projectParents.size(); depth++) {
+            if (projectId.equals(parent)) {
+                return true;
+            }
+            parent = projectParents.get(parent);
+        }
+        return false;
+    }
+
+    // Сгенерированному проекту без родителя назначается корневой проект прогона
+    public void applyDefaultParent(Project project) {
+        if (isEnabled() && project.getParentProject() == null) {
+            project.setParentProject(ParentProject.builder().locator(Locators.byId(projectId)).build());
+        }
+    }
+
+    // Создает корневой проект, если модель - проект внутри него; саму модель не меняет
+    public void ensureCreatedFor(BaseModel model) {
+        if (isEnabled() && model instanceof Project project && project.getParentProject() != null
+                && projectId.equals(parentId(project.getParentProject()))) {
+            ensureCreated();
+        }
+    }
+
+    // Удаляет корневой проект со всем поддеревом в конце прогона; повторный вызов ничего не делает
+    public void delete() {
+        synchronized (this) {
+            var wasCreated = created;
+            created = false;
+            deleted = true;
+            if (!wasCreated) {
+                return;
+            }
+        }
+        var status = new UncheckedBase(spec.get(), Endpoint.PROJECTS).delete(projectId).getStatusCode();
+        if (status >= HttpStatus.SC_BAD_REQUEST && status != HttpStatus.SC_NOT_FOUND) {
+            System.err.println("Cannot delete sandbox project %s: HTTP %d".formatted(projectId, status));
+        }
+    }
+
+    private synchronized void ensureCreated() {
+        if (deleted) {
+            throw new IllegalStateException("Sandbox project is already deleted at the end of the run");
+        }
+        if (created) {
+            return;
+        }
+        var project = Project.builder()
+                .id(projectId)
+                .name(projectId)
+                .parentProject(ParentProject.builder().locator(Locators.byId(ROOT_PROJECT_ID)).build())
+                .build();
+        var response = new UncheckedBase(spec.get(), Endpoint.PROJECTS).create(project);
+        if (response.getStatusCode() != HttpStatus.SC_OK) {
+            throw new IllegalStateException("Cannot create sandbox project %s: HTTP %d %s"
+                    .formatted(projectId, response.getStatusCode(), response.asString()));
+        }
+        created = true;
+        RunReport.global().put("sandboxProject", projectId);
+    }
+
+    private static String parentId(ParentProject parentProject) {
+        return parentProject.getId() != null ? parentProject.getId() : Locators.idOf(parentProject.getLocator());
+    }
+}
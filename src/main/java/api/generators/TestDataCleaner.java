@@ -0,0 +1,151 @@
+package api.generators;
+
+import api.config.Config;
+import api.enums.Endpoint;
+import api.requests.RequestExecutors;
+import api.requests.unchecked.UncheckedBase;
+import api.spec.Specifications;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.apache.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Параллельное удаление созданных сущностей.
+ * <p>
+ * Удаление идет фазами: сначала сборки (сборки из BUILD_QUEUE отменяются, если еще в очереди, а вышедшие из очереди
+ * удаляются как сборки и учитываются в отчете по BUILDS), затем build types, затем проекты (от самых вложенных
+ * к корневым), затем пользователи. Внутри фазы запросы выполняются параллельно, но не более cleanupParallelism
+ * одновременно, на общем executor асинхронных запросов, без своего пула. На каждый Endpoint используется один
+ * запросчик с одной спецификацией суперпользователя.
+ */
+public class TestDataCleaner {
+    private static final int DEFAULT_PARALLELISM = 8;
+    private static final List<Endpoint> DELETE_ORDER = List.of(Endpoint.BUILD_QUEUE, Endpoint.BUILDS,
+            Endpoint.BUILD_TYPES, Endpoint.PROJECTS, Endpoint.USERS);
+
+    private final Semaphore permits;
+    private final EnumMap<Endpoint, UncheckedBase> requests = new EnumMap<>(Endpoint.class);
+
+    public TestDataCleaner() {
+        this(Config.getIntProperty("cleanupParallelism", DEFAULT_PARALLELISM));
+    }
+
+    public TestDataCleaner(int parallelism) {
+        this(Specifications.superUserSpec(), parallelism);
+    }
+
+    TestDataCleaner(RequestSpecification spec, int parallelism) {
+        this.permits = new Semaphore(Math.max(1, parallelism));
+        for (var endpoint : Endpoint.values()) {
+            requests.put(endpoint, new UncheckedBase(spec, endpoint));
+        }
+    }
+
+    public CleanupReport delete(Map<Endpoint, ? extends Collection<String>> createdEntities,
+                                Map<String, String> projectParents) {
+        var report = new CleanupReport();
+        for (var endpoint : deleteOrder()) {
+            var ids = createdEntities.get(endpoint);
+            if (ids == null || ids.isEmpty()) {
+                continue;
+            }
+            if (endpoint == Endpoint.PROJECTS) {
+                for (var level : projectLevels(ids, projectParents)) {
+                    deletePhase(endpoint, level, report);
+                }
+            } else {
+                deletePhase(endpoint, ids, report);
+            }
+        }
+        return report;
+    }
+
+    private void deletePhase(Endpoint endpoint, Collection<String> ids, CleanupReport report) {
+        var endpointReport = report.forEndpoint(endpoint);
+        var request = requests.get(endpoint);
+        var start = System.nanoTime();
+        var futures = new HashMap<String, Future<?>>();
+        for (var id : ids) {
+            // Разрешение берется до отправки задачи, чтобы не создавать потоки, которые только ждут своей очереди
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                endpointReport.addFailure(id, "Interrupted");
+                break;
+            }
+            futures.put(id, RequestExecutors.shared().submit(() -> {
+                try {
+                    var response = request.delete(id);
+                    if (endpoint == Endpoint.BUILD_QUEUE && response.getStatusCode() == HttpStatus.SC_NOT_FOUND) {
+                        // Сборка уже вышла из очереди: удаляется как сборка и учитывается в отчете по BUILDS
+                        record(report.forEndpoint(Endpoint.BUILDS), id, requests.get(Endpoint.BUILDS).delete(id));
+                    } else {
+                        record(endpointReport, id, response);
+                    }
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        futures.forEach((id, future) -> {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                endpointReport.addFailure(id, String.valueOf(e.getCause()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                endpointReport.addFailure(id, "Interrupted");
+            }
+        });
+        endpointReport.addDuration(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static void record(CleanupReport.EndpointReport endpointReport, String id, Response response) {
+        var statusCode = response.getStatusCode();
+        if (statusCode < HttpStatus.SC_BAD_REQUEST || statusCode == HttpStatus.SC_NOT_FOUND) {
+            endpointReport.addDeleted();
+        } else {
+            endpointReport.addFailure(id, "HTTP %d: %s".formatted(statusCode, response.asString()));
+        }
+    }
+
+    // Группирует проекты по глубине вложенности, начиная с самых глубоких, чтобы дочерние удалялись раньше родителей
+    private static Collection<List<String>> projectLevels(Collection<String> ids, Map<String, String> projectParents) {
+        var idSet = Set.copyOf(ids);
+        var levels = new TreeMap<Integer, List<String>>((a, b) -> Integer.compare(b, a));
+        for (var id : idSet) {
+            var depth = 0;
+            var parent = projectParents.get(id);
+            while (parent != null && idSet.contains(parent) && depth < idSet.size()) {
+                depth++;
+                parent = projectParents.get(parent);
+            }
+            levels.computeIfAbsent(depth, key -> new ArrayList<>()).add(id);
+        }
+        return levels.values();
+    }
+
+    private static List<Endpoint> deleteOrder() {
+        var order = new ArrayList<>(DELETE_ORDER);
+        for (var endpoint : Endpoint.values()) {
+            if (!order.contains(endpoint)) {
+                order.add(endpoint);
+            }
+        }
+        return order;
+    }
+}
@@ -1,37 +1,73 @@
 package api.generators;
 
 import api.enums.Endpoint;
-import api.spec.Specifications;
-import api.requests.unchecked.UncheckedBase;
 import api.models.BaseModel;
+import api.models.Project;
+import api.requests.Locators;
 
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
+/**
+ * Хранилище созданных сущностей.
+ * <p>
+ * Есть общее хранилище и хранилища, привязанные к потоку: openScope() открывает хранилище для текущего теста,
+ * closeScope() удаляет его сущности и отвязывает от потока. Поэтому при параллельном запуске тестов каждый тест
+ * удаляет только свои сущности. Сущности, созданные вне теста, попадают в общее хранилище.
+ */
 public class TestDataStorage {
-    private static TestDataStorage testDataStorage;
+    private static final TestDataStorage GLOBAL_STORAGE = new TestDataStorage();
+    private static final ThreadLocal<TestDataStorage> SCOPED_STORAGE = new ThreadLocal<>();
     private final EnumMap<Endpoint, Set<String>> createdEntitiesMap;
+    private final Map<String, String> projectParents;
 
-    private TestDataStorage() {
+    TestDataStorage() {
+        // EnumMap заполняется сразу и дальше не меняется, поэтому конкурентно меняются только сами множества
         createdEntitiesMap = new EnumMap<>(Endpoint.class);
+        for (var endpoint : Endpoint.values()) {
+            createdEntitiesMap.put(endpoint, ConcurrentHashMap.newKeySet());
+        }
+        projectParents = new ConcurrentHashMap<>();
     }
 
     public static TestDataStorage getStorage() {
-        if (testDataStorage == null) {
-            testDataStorage = new TestDataStorage();
-        }
-        return testDataStorage;
+        var scopedStorage = SCOPED_STORAGE.get();
+        return scopedStorage != null ? scopedStorage : GLOBAL_STORAGE;
+    }
+
+    public static TestDataStorage getGlobalStorage() {
+        return GLOBAL_STORAGE;
+    }
+
+    public static TestDataStorage openScope() {
+        var scopedStorage = new TestDataStorage();
+        SCOPED_STORAGE.set(scopedStorage);
+        return scopedStorage;
+    }
+
+    public static CleanupReport closeScope() {
+        return closeScope(Sandbox.global(), TestDataCleaner::new);
+    }
+
+    static CleanupReport closeScope(Sandbox sandbox, Supplier<TestDataCleaner> cleaner) {
+        var scopedStorage = SCOPED_STORAGE.get();
+        SCOPED_STORAGE.remove();
+        return scopedStorage != null ? scopedStorage.deleteCreatedEntities(sandbox, cleaner) : new CleanupReport();
     }
 
     private void addCreatedEntity(Endpoint endpoint, String id) {
         if (id != null) {
-            createdEntitiesMap.computeIfAbsent(endpoint, key -> new HashSet<>()).add(id);
+            createdEntitiesMap.get(endpoint).add(id);
         }
     }
 
-    private String getEntityIdOrLocator(BaseModel model) {
+    static String getEntityIdOrLocator(BaseModel model) {
         try {
             var idField = model.getClass().getDeclaredField("id");
             idField.setAccessible(true);
@@ -51,19 +87,61 @@ public class TestDataStorage {
         }
     }
 
+    private String getParentProjectId(Project project) {
+        var parentProject = project.getParentProject();
+        if (parentProject == null) {
+            return null;
+        }
+        if (parentProject.getId() != null) {
+            return parentProject.getId();
+        }
+        return Locators.idOf(parentProject.getLocator());
+    }
+
     public void addCreatedEntity(Endpoint endpoint, BaseModel model) {
-        addCreatedEntity(endpoint, getEntityIdOrLocator(model));
+        var id = getEntityIdOrLocator(model);
+        addCreatedEntity(endpoint, id);
+        if (id != null && model instanceof Project project) {
+            var parentId = getParentProjectId(project);
+            if (parentId != null) {
+                projectParents.put(id, parentId);
+            }
+        }
     }
 
-    public void deleteCreatedEntities() {
-        createdEntitiesMap.forEach(((endpoint, ids) ->
-                        ids.forEach(id ->
-                                new UncheckedBase(Specifications.superUserSpec(), endpoint).delete(id)
-                        )
-                )
+    public CleanupReport deleteCreatedEntities() {
+        return deleteCreatedEntities(Sandbox.global(), TestDataCleaner::new);
+    }
 
-        );
+    CleanupReport deleteCreatedEntities(Sandbox sandbox, Supplier<TestDataCleaner> cleaner) {
+        // Забираем снимок, чтобы сущности, добавленные во время удаления, не потерялись
+        var entitiesToDelete = new EnumMap<Endpoint, Set<String>>(Endpoint.class);
+        createdEntitiesMap.forEach((endpoint, ids) -> {
+            var snapshot = new HashSet<>(ids);
+            ids.removeAll(snapshot);
+            // В режиме sandbox проекты внутри корневого проекта прогона, билд-конфигурации и сборки удаляются
+            // вместе с корневым проектом
+            if (endpoint == Endpoint.PROJECTS) {
+                var sandboxed = snapshot.stream().filter(id -> sandbox.containsProject(id, projectParents)).toList();
+                sandboxed.forEach(snapshot::remove);
+                sandboxed.forEach(projectParents::remove);
+            }
+            if (!sandbox.covers(endpoint)) {
+                entitiesToDelete.put(endpoint, snapshot);
+            }
+        });
+        var parentsSnapshot = new HashMap<>(projectParents);
+        if (entitiesToDelete.values().stream().allMatch(Set::isEmpty)) {
+            return new CleanupReport();
+        }
+
+        var report = cleaner.get().delete(entitiesToDelete, parentsSnapshot);
+        // Успешная очистка не засоряет вывод, отчет печатается только при ошибках
+        if (report.hasFailures()) {
+            System.err.println(report);
+        }
 
-        createdEntitiesMap.clear();
+        entitiesToDelete.getOrDefault(Endpoint.PROJECTS, Set.of()).forEach(projectParents::remove);
+        return report;
     }
 }
@@ -0,0 +1,104 @@
+package api.load;
+
+import api.metrics.LatencyHistogram;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Результат прогона нагрузки: окна по времени и итог по каждой операции смеси.
+ */
+public class LoadReport {
+    private final List<Window> windows;
+    private final Map<Workload.Entry, Window> totals;
+    private final long windowMillis;
+
+    LoadReport(List<Window> windows, Map<Workload.Entry, Window> totals, long windowMillis) {
+        this.windows = windows;
+        this.totals = totals;
+        this.windowMillis = windowMillis;
+    }
+
+    public List<Window> getWindows() {
+        return windows;
+    }
+
+    public Map<Workload.Entry, Window> getTotals() {
+        return totals;
+    }
+
+    // Доля ошибок по всем операциям в процентах без ошибок типов ignoredErrorTypes
+    public double getErrorPercent(Set<String> ignoredErrorTypes) {
+        long count = 0;
+        long errors = 0;
+        for (var window : totals.values()) {
+            var ignored = 0L;
+            for (var type : ignoredErrorTypes) {
+                ignored += window.getErrorTypes().getOrDefault(type, 0L);
+            }
+            count += window.getLatency().getCount() - ignored;
+            errors += window.getErrors() - ignored;
+        }
+        return count == 0 ? 0 : errors * 100.0 / count;
+    }
+
+    @Override
+    public String toString() {
+        var builder = new StringBuilder("Load report").append(System.lineSeparator());
+        for (var i = 0; i < windows.size(); i++) {
+            var window = windows.get(i);
+            builder.append("  t=%6.1fs %s".formatted(i * windowMillis / 1000.0, window.format(windowMillis)))
+                    .append(System.lineSeparator());
+        }
+        builder.append("Totals").append(System.lineSeparator());
+        totals.forEach((entry, window) -> builder.append("  %s %s: %s".formatted(entry.endpoint(), entry.operation(),
+                window.format(0))).append(System.lineSeparator()));
+        return builder.toString();
+    }
+
+    // Ошибки учитываются по типу: HTTP-статус, отсутствие подходящей сущности или класс исключения
+    public static class Window {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final Map<String, LongAdder> errorTypes = new ConcurrentHashMap<>();
+
+        // error - тип ошибки или null для успешного запроса
+        void record(long durationNanos, String error) {
+            latency.record(durationNanos, TimeUnit.NANOSECONDS);
+            if (error != null) {
+                errors.increment();
+                errorTypes.computeIfAbsent(error, key -> new LongAdder()).increment();
+            }
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public Map<String, Long> getErrorTypes() {
+            var counts = new TreeMap<String, Long>();
+            errorTypes.forEach((type, count) -> counts.put(type, count.sum()));
+            return counts;
+        }
+
+        String format(long windowMillis) {
+            var count = latency.getCount();
+            var throughput = windowMillis > 0 ? "%8.1f req/s".formatted(count * 1000.0 / windowMillis)
+                    : "%8d req".formatted(count);
+            var line = "%s, errors %5.1f%%, p50 %7.1f ms, p99 %7.1f ms, max %7.1f ms".formatted(throughput,
+                    count == 0 ? 0 : errors.sum() * 100.0 / count, latency.getPercentileMicros(50) / 1000.0,
+                    latency.getPercentileMicros(99) / 1000.0, latency.getMaxMicros() / 1000.0);
+            var types = getErrorTypes();
+            return types.isEmpty() ? line : line + " " + types;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package api.load;
+
+import api.config.Config;
+import api.data.RandomData;
+import api.data.TestDataGenerator;
+import api.enums.Endpoint;
+import api.generators.Sandbox;
+import api.generators.TestDataStorage;
+import api.models.BaseModel;
+import api.models.Build;
+import api.models.BuildType;
+import api.models.Project;
+import api.models.User;
+import api.requests.RequestExecutors;
+import api.requests.unchecked.UncheckedBase;
+import api.spec.Specifications;
+import api.stub.TeamCityStub;
+import io.restassured.response.Response;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный прогон поверх тех же моделей, генератора и CrudInterface, что и тесты.
+ * <p>
+ * Нагрузка открытая: запросы запускаются с постоянной частотой по расписанию и не ждут завершения предыдущих, поэтому
+ * медленный сервер не снижает подаваемую нагрузку. Задержка считается от запланированного момента старта, а не от
+ * фактического, чтобы отставание планировщика или executor'а тоже попадало в перцентили. Запросы выполняются
+ * на {@link RequestExecutors#shared()} (виртуальные потоки на JDK 21+). Созданные сущности регистрируются
+ * в отдельном {@link TestDataStorage} и удаляются по окончании прогона. Запросы идут в обход ConcurrencyLimiter
+ * и ReadCache ({@link UncheckedBase#direct}): лимит и повторы сглаживали бы подаваемую нагрузку, а условные чтения
+ * подменяли бы измеряемые ответы.
+ * <p>
+ * Прогон завершается с кодом 1, если он упал с исключением или доля ошибок (без операций, которым не нашлось
+ * сущности) превысила loadMaxErrorPercent.
+ * <p>
+ * Запуск: ./gradlew loadTest -PloadRate=50 -PloadDurationSeconds=60 -PloadMix=PROJECTS:CREATE=20,PROJECTS:READ=80
+ */
+public class LoadRunner {
+    private static final String DEFAULT_MIX = "PROJECTS:CREATE=10,PROJECTS:READ=50,PROJECTS:UPDATE=10,"
+            + "PROJECTS:DELETE=5,BUILD_TYPES:CREATE=10,BUILD_TYPES:READ=10,USERS:CREATE=3,USERS:DELETE=2";
+    private static final int DEFAULT_RATE = 20;
+    private static final int DEFAULT_DURATION_SECONDS = 60;
+    private static final int DEFAULT_REPORT_INTERVAL_SECONDS = 5;
+    private static final int DEFAULT_MAX_ERROR_PERCENT = 5;
+    private static final long DRAIN_TIMEOUT_SECONDS = 60;
+    private static final String NO_ENTITY = "no entity";
+
+    private final Workload workload;
+    private final long intervalNanos;
+    private final long durationNanos;
+    private final long windowNanos;
+    private final EnumMap<Endpoint, UncheckedBase> requests = new EnumMap<>(Endpoint.class);
+    // Идентификаторы живых сущностей: чтение и обновление берут из головы и возвращают в хвост, удаление забирает
+    private final EnumMap<Endpoint, Queue<String>> liveIds = new EnumMap<>(Endpoint.class);
+    private final SplittableRandom random = new SplittableRandom(RandomData.getSeed());
+
+    public LoadRunner(Workload workload, double ratePerSecond, Duration duration, Duration reportInterval) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Load rate must be positive: " + ratePerSecond);
+        }
+        this.workload = workload;
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        this.durationNanos = duration.toNanos();
+        this.windowNanos = reportInterval.toNanos();
+        for (var endpoint : Endpoint.values()) {
+            requests.put(endpoint, UncheckedBase.direct(Specifications.superUserSpec(), endpoint));
+            liveIds.put(endpoint, new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    public static LoadRunner fromConfig() {
+        var mix = Config.getProperty("loadMix");
+        return new LoadRunner(Workload.parse(mix == null || mix.isBlank() ? DEFAULT_MIX : mix),
+                Config.getIntProperty("loadRate", DEFAULT_RATE),
+                Duration.ofSeconds(Config.getIntProperty("loadDurationSeconds", DEFAULT_DURATION_SECONDS)),
+                Duration.ofSeconds(Config.getIntProperty("loadReportIntervalSeconds",
+                        DEFAULT_REPORT_INTERVAL_SECONDS)));
+    }
+
+    // Без System.exit при успехе: все потоки, кроме потока заглушки, - daemon, а заглушка останавливается здесь
+    public static void main(String[] args) {
+        var failed = true;
+        try {
+            TeamCityStub.startIfConfigured();
+            var report = fromConfig().run();
+            System.out.println(report);
+            failed = isFailed(report, Config.getIntProperty("loadMaxErrorPercent", DEFAULT_MAX_ERROR_PERCENT));
+        } finally {
+            Sandbox.global().delete();
+            TeamCityStub.stopShared();
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    static boolean isFailed(LoadReport report, int maxErrorPercent) {
+        var errorPercent = report.getErrorPercent(Set.of(NO_ENTITY));
+        if (errorPercent > maxErrorPercent) {
+            System.err.println("Load run failed: %.1f%% errors, allowed %d%%".formatted(errorPercent,
+                    maxErrorPercent));
+            return true;
+        }
+        return false;
+    }
+
+    public LoadReport run() {
+        var windowCount = (int) ((durationNanos + windowNanos - 1) / windowNanos);
+        var windows = new ArrayList<LoadReport.Window>(windowCount);
+        for (var i = 0; i < windowCount; i++) {
+            windows.add(new LoadReport.Window());
+        }
+        var totals = new LinkedHashMap<Workload.Entry, LoadReport.Window>();
+        workload.getEntries().forEach(entry -> totals.put(entry, new LoadReport.Window()));
+
+        var storage = TestDataStorage.openScope();
+        // Запросы в полете плюс единица за сам цикл запуска; latch открывает тот, кто довел счетчик до нуля.
+        // Число запросов в полете не ограничено, в отличие от числа участников Phaser
+        var inFlight = new AtomicLong(1);
+        var drained = new CountDownLatch(1);
+        var executor = RequestExecutors.shared();
+        var start = System.nanoTime();
+        var reportedWindows = 0;
+        try {
+            for (long i = 0; ; i++) {
+                var intendedStart = start + i * intervalNanos;
+                if (intendedStart - start >= durationNanos) {
+                    break;
+                }
+                waitUntil(intendedStart);
+                var entry = workload.pick(random);
+                var window = windows.get((int) ((intendedStart - start) / windowNanos));
+                var total = totals.get(entry);
+                inFlight.incrementAndGet();
+                executor.execute(() -> {
+                    try {
+                        var error = execute(entry, storage);
+                        var latency = System.nanoTime() - intendedStart;
+                        window.record(latency, error);
+                        total.record(latency, error);
+                    } finally {
+                        if (inFlight.decrementAndGet() == 0) {
+                            drained.countDown();
+                        }
+                    }
+                });
+                // Окна печатаются с отставанием на одно, чтобы запросы из них успели завершиться
+                var currentWindow = (int) ((System.nanoTime() - start) / windowNanos);
+                while (reportedWindows < currentWindow - 1) {
+                    printWindow(reportedWindows, windows.get(reportedWindows));
+                    reportedWindows++;
+                }
+            }
+            if (inFlight.decrementAndGet() == 0) {
+                drained.countDown();
+            }
+            if (!drained.await(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("Load run finished with %d requests still in flight".formatted(inFlight.get()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            liveIds.values().forEach(Queue::clear);
+            TestDataStorage.closeScope();
+        }
+        return new LoadReport(List.copyOf(windows), Collections.unmodifiableMap(totals),
+                TimeUnit.NANOSECONDS.toMillis(windowNanos));
+    }
+
+    private void printWindow(int index, LoadReport.Window window) {
+        var windowMillis = TimeUnit.NANOSECONDS.toMillis(windowNanos);
+        System.out.println("t=%6.1fs %s".formatted(index * windowMillis / 1000.0, window.format(windowMillis)));
+    }
+
+    private static void waitUntil(long nanoTime) {
+        for (var remaining = nanoTime - System.nanoTime(); remaining > 0; remaining = nanoTime - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    // Возвращает null, если запрос выполнен успешно, иначе тип ошибки: HTTP-статус, отсутствие подходящей сущности
+    // или класс исключения
+    private String execute(Workload.Entry entry, TestDataStorage storage) {
+        var endpoint = entry.endpoint();
+        var request = requests.get(endpoint);
+        var ids = liveIds.get(endpoint);
+        try {
+            switch (entry.operation()) {
+                case CREATE -> {
+                    var model = generate(endpoint, null);
+                    if (model == null) {
+                        return NO_ENTITY;
+                    }
+                    var response = request.create(model);
+                    if (!isSuccess(response)) {
+                        return httpError(response);
+                    }
+                    var created = response.as(endpoint.getModelClass());
+                    storage.addCreatedEntity(endpoint, created);
+                    ids.add(idOf(created));
+                    return null;
+                }
+                case READ -> {
+                    var id = ids.poll();
+                    if (id == null) {
+                        return NO_ENTITY;
+                    }
+                    ids.add(id);
+                    return httpError(request.read(id));
+                }
+                case UPDATE -> {
+                    var id = ids.poll();
+                    if (id == null) {
+                        return NO_ENTITY;
+                    }
+                    ids.add(id);
+                    var model = generate(endpoint, id);
+                    return model == null ? NO_ENTITY : httpError(request.update(id, model));
+                }
+                case DELETE -> {
+                    var id = ids.poll();
+                    return id == null ? NO_ENTITY : httpError(request.delete(id));
+                }
+                default -> throw new IllegalStateException("Unexpected operation " + entry.operation());
+            }
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName();
+        }
+    }
+
+    // Генерирует тело запроса; билд-конфигурации создаются в одном из уже созданных прогоном проектов
+    private BaseModel generate(Endpoint endpoint, String id) {
+        return switch (endpoint) {
+            case PROJECTS -> {
+                var project = TestDataGenerator.generate(Project.class);
+                if (id != null) {
+                    project.setId(id);
+                }
+                yield project;
+            }
+            case BUILD_TYPES -> {
+                var projectId = liveIds.get(Endpoint.PROJECTS).peek();
+                if (projectId == null) {
+                    yield null;
+                }
+                var buildType = TestDataGenerator.generate(List.of(Project.builder().id(projectId).build()),
+                        BuildType.class);
+                if (id != null) {
+                    buildType.setId(id);
+                }
+                yield buildType;
+            }
+            case USERS -> {
+                var user = TestDataGenerator.generate(User.class);
+                if (id != null) {
+                    user.setId(id);
+                }
+                yield user;
+            }
+            // Сборка запускается в одной из созданных прогоном билд-конфигураций и не обновляется
+            case BUILD_QUEUE -> {
+                var buildTypeId = liveIds.get(Endpoint.BUILD_TYPES).peek();
+                yield id == null && buildTypeId != null ? Build.of(buildTypeId) : null;
+            }
+            // Сборки создаются только через очередь
+            case BUILDS -> null;
+        };
+    }
+
+    private static String idOf(BaseModel model) {
+        if (model instanceof Project project) {
+            return project.getId();
+        }
+        if (model instanceof BuildType buildType) {
+            return buildType.getId();
+        }
+        if (model instanceof User user) {
+            return user.getId();
+        }
+        if (model instanceof Build build) {
+            return build.getId();
+        }
+        throw new IllegalArgumentException("Unsupported model " + model.getClass().getSimpleName());
+    }
+
+    private static boolean isSuccess(Response response) {
+        return response.getStatusCode() < 400;
+    }
+
+    private static String httpError(Response response) {
+        return isSuccess(response) ? null : "HTTP " + response.getStatusCode();
+    }
+}
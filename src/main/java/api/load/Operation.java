@@ -0,0 +1,8 @@
+package api.load;
+
+public enum Operation {
+    CREATE,
+    READ,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,56 @@
+package api.load;
+
+import api.enums.Endpoint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Смесь операций нагрузки: доли операций по Endpoint, например
+ * "PROJECTS:CREATE=20,PROJECTS:READ=60,USERS:CREATE=10,USERS:DELETE=10". Доли не обязаны давать в сумме 100.
+ */
+public class Workload {
+    private final List<Entry> entries;
+    private final int totalWeight;
+
+    public Workload(List<Entry> entries) {
+        this.entries = List.copyOf(entries);
+        this.totalWeight = entries.stream().mapToInt(Entry::weight).sum();
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("Workload must contain at least one operation with positive weight");
+        }
+    }
+
+    public static Workload parse(String mix) {
+        var entries = new ArrayList<Entry>();
+        for (var item : mix.split(",")) {
+            var parts = item.trim().split("[:=]");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid workload item '%s', expected ENDPOINT:OPERATION=WEIGHT"
+                        .formatted(item));
+            }
+            entries.add(new Entry(Endpoint.valueOf(parts[0].trim()), Operation.valueOf(parts[1].trim()),
+                    Integer.parseInt(parts[2].trim())));
+        }
+        return new Workload(entries);
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public Entry pick(SplittableRandom random) {
+        var value = random.nextInt(totalWeight);
+        for (var entry : entries) {
+            value -= entry.weight();
+            if (value < 0) {
+                return entry;
+            }
+        }
+        return entries.get(entries.size() - 1);
+    }
+
+    public record Entry(Endpoint endpoint, Operation operation, int weight) {
+    }
+}
@@ -0,0 +1,104 @@
+package api.metrics;
+
+import api.enums.Endpoint;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Метрики REST-запросов: гистограмма задержек на каждую комбинацию Endpoint, HTTP-метода и статуса.
+ * Статус -1 означает, что ответ не был получен (исключение при отправке запроса). Запросы в секунду считаются
+ * за интервал от начала первого до конца последнего записанного запроса.
+ */
+public class RequestMetrics {
+    private static final RequestMetrics GLOBAL_METRICS = new RequestMetrics();
+    private static final String OTHER_ENDPOINT = "OTHER";
+
+    private final Map<Key, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final LongAccumulator firstStartNanos = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator lastEndNanos = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    public static RequestMetrics global() {
+        return GLOBAL_METRICS;
+    }
+
+    public void record(Endpoint endpoint, String method, int statusCode, long durationNanos) {
+        var key = new Key(endpoint != null ? endpoint.name() : OTHER_ENDPOINT, method, statusCode);
+        histograms.computeIfAbsent(key, k -> new LatencyHistogram()).record(durationNanos, TimeUnit.NANOSECONDS);
+        var now = System.nanoTime();
+        firstStartNanos.accumulate(now - durationNanos);
+        lastEndNanos.accumulate(now);
+    }
+
+    // Длительность интервала, за который записаны запросы; 0, если запросов не было
+    public double getIntervalSeconds() {
+        var first = firstStartNanos.get();
+        var last = lastEndNanos.get();
+        return first == Long.MAX_VALUE || last <= first ? 0 : (last - first) / 1e9;
+    }
+
+    public Map<Key, LatencyHistogram> getHistograms() {
+        return Map.copyOf(histograms);
+    }
+
+    public List<Map<String, Object>> toRows() {
+        var rows = new ArrayList<Map<String, Object>>();
+        var intervalSeconds = getIntervalSeconds();
+        histograms.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(Key::endpoint)
+                        .thenComparing(Key::method).thenComparingInt(Key::statusCode)))
+                .forEach(entry -> {
+                    var key = entry.getKey();
+                    var histogram = entry.getValue();
+                    var row = new LinkedHashMap<String, Object>();
+                    row.put("endpoint", key.endpoint());
+                    row.put("method", key.method());
+                    row.put("status", key.statusCode());
+                    row.put("error", key.isError());
+                    row.put("count", histogram.getCount());
+                    row.put("rps", intervalSeconds == 0 ? 0.0 : histogram.getCount() / intervalSeconds);
+                    row.put("meanMs", histogram.getMeanMicros() / 1000);
+                    row.put("p50Ms", histogram.getPercentileMicros(50) / 1000.0);
+                    row.put("p90Ms", histogram.getPercentileMicros(90) / 1000.0);
+                    row.put("p99Ms", histogram.getPercentileMicros(99) / 1000.0);
+                    row.put("maxMs", histogram.getMaxMicros() / 1000.0);
+                    rows.add(row);
+                });
+        return rows;
+    }
+
+    // Пишет rest-metrics.json и rest-metrics.csv в указанную директорию
+    public void export(Path directory) {
+        var rows = toRows();
+        try {
+            Files.createDirectories(directory);
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(directory.resolve("rest-metrics.json").toFile(), rows);
+            var csv = new StringBuilder("endpoint,method,status,error,count,rps,meanMs,p50Ms,p90Ms,p99Ms,maxMs\n");
+            rows.forEach(row -> csv.append(String.join(",", row.values().stream().map(String::valueOf).toList()))
+                    .append('\n'));
+            Files.writeString(directory.resolve("rest-metrics.csv"), csv);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot export request metrics to " + directory, e);
+        }
+    }
+
+    public record Key(String endpoint, String method, int statusCode) {
+
+        public boolean isError() {
+            return statusCode < 0 || statusCode >= 400;
+        }
+    }
+}
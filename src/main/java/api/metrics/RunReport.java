@@ -0,0 +1,50 @@
+package api.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Сведения о прогоне, которые нужны для его разбора или повторения: seed RandomData, проект-песочница, адрес
+ * заглушки, метрики пула тестовых данных. Экспортируется в run-info.json рядом с файлами RequestMetrics.
+ */
+public class RunReport {
+    private static final RunReport GLOBAL_REPORT = new RunReport();
+
+    private final Map<String, Object> values = new ConcurrentHashMap<>();
+
+    public static RunReport global() {
+        return GLOBAL_REPORT;
+    }
+
+    // null удаляет значение
+    public void put(String key, Object value) {
+        if (value == null) {
+            values.remove(key);
+        } else {
+            values.put(key, value);
+        }
+    }
+
+    public Map<String, Object> getValues() {
+        return new TreeMap<>(values);
+    }
+
+    // Пишет run-info.json в указанную директорию
+    public void export(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(directory.resolve("run-info.json").toFile(), getValues());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot export run report to " + directory, e);
+        }
+    }
+}
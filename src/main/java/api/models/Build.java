@@ -0,0 +1,38 @@
+package api.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Build extends BaseModel {
+    public static final String STATE_FINISHED = "finished";
+
+    private String id;
+    private String buildTypeId;
+    private BuildType buildType;
+    // queued, running или finished
+    private String state;
+    // SUCCESS, FAILURE или UNKNOWN (например, у отмененной сборки)
+    private String status;
+    private String statusText;
+
+    // Тело запроса на запуск сборки через очередь
+    public static Build of(String buildTypeId) {
+        return Build.builder().buildType(BuildType.builder().id(buildTypeId).build()).build();
+    }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return STATE_FINISHED.equals(state);
+    }
+}
@@ -0,0 +1,14 @@
+package api.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Builds {
+    private int count;
+    private List<Build> build;
+
+}
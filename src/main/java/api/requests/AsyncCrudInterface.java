@@ -0,0 +1,12 @@
+package api.requests;
+
+import api.models.BaseModel;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncCrudInterface {
+    CompletableFuture<?> create(BaseModel model);
+    CompletableFuture<?> read(String id);
+    CompletableFuture<?> update(String id, BaseModel model);
+    CompletableFuture<?> delete(String id);
+}
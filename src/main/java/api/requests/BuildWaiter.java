@@ -0,0 +1,189 @@
+package api.requests;
+
+import api.config.Config;
+import api.enums.Endpoint;
+import api.models.Build;
+import api.models.Builds;
+import api.requests.unchecked.UncheckedBase;
+import api.spec.Specifications;
+import io.restassured.specification.RequestSpecification;
+import org.apache.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Ожидание завершения сборок без потока на каждую сборку.
+ * <p>
+ * Все ожидаемые сборки опрашивает один планировщик: раз в buildWaitMinIntervalMillis он выбирает сборки, которым
+ * пора обновить состояние, и запрашивает их пачками по buildWaitBatchSize одним запросом коллекции /app/rest/builds
+ * с локатором item:(id:1),item:(id:2),... Интервал опроса сборки удваивается, пока ее состояние не меняется,
+ * до buildWaitMaxIntervalMillis и сбрасывается, когда сборка выходит из очереди. Поэтому число запросов к серверу
+ * растет с числом пачек, а не сборок. Сборка, которую не нашли MAX_MISSES опросов подряд (например, удаленная
+ * из очереди), завершает ожидание ошибкой, по истечении buildWaitTimeoutSeconds ожидание завершается TimeoutException.
+ */
+public final class BuildWaiter {
+    private static final int DEFAULT_MIN_INTERVAL_MILLIS = 500;
+    private static final int DEFAULT_MAX_INTERVAL_MILLIS = 10_000;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int DEFAULT_TIMEOUT_SECONDS = 600;
+    private static final int MAX_MISSES = 3;
+
+    private final UncheckedBase builds;
+    private final long minIntervalNanos;
+    private final long maxIntervalNanos;
+    private final int batchSize;
+    private final Duration timeout;
+    private final Map<String, PendingBuild> pending = new ConcurrentHashMap<>();
+
+    public BuildWaiter(RequestSpecification spec, Duration minInterval, Duration maxInterval, int batchSize,
+                       Duration timeout) {
+        this.builds = new UncheckedBase(spec, Endpoint.BUILDS);
+        this.minIntervalNanos = minInterval.toNanos();
+        this.maxIntervalNanos = Math.max(minIntervalNanos, maxInterval.toNanos());
+        this.batchSize = Math.max(1, batchSize);
+        this.timeout = timeout;
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "build-waiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::poll, minIntervalNanos, minIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Ленивая инициализация через holder-класс, планировщик запускается при первом обращении
+    private static final class Holder {
+        private static final BuildWaiter WAITER = new BuildWaiter(Specifications.superUserSpec(),
+                Duration.ofMillis(Config.getIntProperty("buildWaitMinIntervalMillis", DEFAULT_MIN_INTERVAL_MILLIS)),
+                Duration.ofMillis(Config.getIntProperty("buildWaitMaxIntervalMillis", DEFAULT_MAX_INTERVAL_MILLIS)),
+                Config.getIntProperty("buildWaitBatchSize", DEFAULT_BATCH_SIZE),
+                Duration.ofSeconds(Config.getIntProperty("buildWaitTimeoutSeconds", DEFAULT_TIMEOUT_SECONDS)));
+    }
+
+    public static BuildWaiter global() {
+        return Holder.WAITER;
+    }
+
+    // Завершается сборкой в состоянии finished; повторное ожидание той же сборки возвращает тот же future
+    public CompletableFuture<Build> waitFor(String buildId) {
+        return pending.computeIfAbsent(buildId, PendingBuild::new).future;
+    }
+
+    public CompletableFuture<List<Build>> waitForAll(Collection<String> buildIds) {
+        var futures = buildIds.stream().map(this::waitFor).toList();
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    // Пачки опрашиваются параллельно, следующий опрос начинается только после завершения всех пачек
+    private void poll() {
+        try {
+            var now = System.nanoTime();
+            var due = pending.values().stream()
+                    .filter(build -> now - build.nextPollNanos >= 0)
+                    .map(build -> build.id)
+                    .toList();
+            var batches = new ArrayList<CompletableFuture<Void>>();
+            for (var from = 0; from < due.size(); from += batchSize) {
+                var batch = due.subList(from, Math.min(due.size(), from + batchSize));
+                batches.add(CompletableFuture.runAsync(() -> pollBatch(batch), RequestExecutors.shared()));
+            }
+            CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).join();
+        } catch (RuntimeException e) {
+            // Исключение остановило бы периодический опрос, поэтому оно только выводится
+            System.err.println("Cannot poll builds: " + e);
+        }
+    }
+
+    private void pollBatch(List<String> ids) {
+        var locator = ids.stream().map(id -> "item:(%s)".formatted(Locators.byId(id))).collect(Collectors.joining(","));
+        var found = new HashMap<String, Build>();
+        var polled = false;
+        try {
+            var response = builds.readPage(locator, 0, ids.size());
+            if (response.getStatusCode() == HttpStatus.SC_OK) {
+                var page = response.as(Builds.class).getBuild();
+                if (page != null) {
+                    page.forEach(build -> found.put(build.getId(), build));
+                }
+                polled = true;
+            }
+        } catch (RuntimeException e) {
+            // Ошибка запроса не означает, что сборок нет: они опрашиваются снова с увеличенным интервалом
+        }
+        var now = System.nanoTime();
+        for (var id : ids) {
+            var build = pending.get(id);
+            if (build != null) {
+                if (polled) {
+                    build.onPolled(found.get(id), now);
+                } else {
+                    build.backOff(now);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ожидаемая сборка. Поля, кроме future, меняет только опрос, а опросы разделены join в poll(),
+     * поэтому синхронизация не нужна.
+     */
+    private final class PendingBuild {
+        private final String id;
+        private final CompletableFuture<Build> future = new CompletableFuture<>();
+        private long nextPollNanos;
+        private long intervalNanos = minIntervalNanos;
+        private String state;
+        private int misses;
+
+        private PendingBuild(String id) {
+            this.id = id;
+            this.nextPollNanos = System.nanoTime() + minIntervalNanos;
+            future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .whenComplete((build, error) -> pending.remove(id, this));
+        }
+
+        private void onPolled(Build build, long now) {
+            if (build == null) {
+                if (++misses >= MAX_MISSES) {
+                    future.completeExceptionally(new IllegalStateException("Build %s is not found".formatted(id)));
+                } else {
+                    backOff(now);
+                }
+                return;
+            }
+            misses = 0;
+            if (build.isFinished()) {
+                future.complete(build);
+                return;
+            }
+            if (!Objects.equals(build.getState(), state)) {
+                state = build.getState();
+                intervalNanos = minIntervalNanos;
+                nextPollNanos = now + intervalNanos;
+            } else {
+                backOff(now);
+            }
+        }
+
+        private void backOff(long now) {
+            intervalNanos = Math.min(maxIntervalNanos, intervalNanos * 2);
+            nextPollNanos = now + intervalNanos;
+        }
+    }
+}
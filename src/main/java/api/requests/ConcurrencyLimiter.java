@@ -0,0 +1,210 @@
+package api.requests;
+
+import api.config.Config;
+import api.enums.Endpoint;
+import io.restassured.response.Response;
+import org.apache.http.HttpStatus;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Адаптивное ограничение числа одновременных запросов к Endpoint (AIMD).
+ * <p>
+ * Лимит растет на единицу за каждое окно успешных ответов, пока запросы упираются в лимит, и умножается
+ * на limiterBackoffPercent/100 при признаках перегрузки: ответах 429/502/503/504, ошибках соединения и задержке выше
+ * базовой в limiterLatencyTolerance раз. Базовая задержка - скользящее среднее задержек своего HTTP-метода Endpoint,
+ * чтобы медленное создание не считалось перегрузкой для быстрого чтения. Лимит уменьшается не чаще раза за окно:
+ * перегрузку сигнализируют только запросы, отправленные после предыдущего уменьшения, поэтому пачка ответов 503
+ * на одновременные запросы уменьшает лимит один раз. Вызовы сверх лимита ждут в очереди. Идемпотентные запросы
+ * (все, кроме POST) при перегрузке повторяются до limiterMaxRetries раз с экспоненциальной задержкой со случайным
+ * разбросом. limiterEnabled=false отключает ограничение, {@link #unlimited()} - ограничитель, который ничего
+ * не ограничивает и не повторяет (для нагрузочного прогона).
+ */
+public final class ConcurrencyLimiter {
+    private static final Set<Integer> OVERLOAD_STATUSES = Set.of(429, HttpStatus.SC_BAD_GATEWAY,
+            HttpStatus.SC_SERVICE_UNAVAILABLE, HttpStatus.SC_GATEWAY_TIMEOUT);
+    private static final int DEFAULT_INITIAL_LIMIT = 20;
+    private static final int DEFAULT_MIN_LIMIT = 1;
+    private static final int DEFAULT_MAX_LIMIT = 200;
+    private static final int DEFAULT_BACKOFF_PERCENT = 90;
+    private static final int DEFAULT_LATENCY_TOLERANCE = 3;
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    private static final int DEFAULT_BACKOFF_MILLIS = 100;
+    private static final double BASELINE_WEIGHT = 0.05;
+    private static final EnumMap<Endpoint, ConcurrencyLimiter> LIMITERS = new EnumMap<>(Endpoint.class);
+    private static final boolean ENABLED = !"false".equalsIgnoreCase(Config.getProperty("limiterEnabled"));
+    private static final ConcurrencyLimiter UNLIMITED = new ConcurrencyLimiter(false, 1, 1, 1, 1, 1, 0, 0);
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final int maxRetries;
+    private final long baseBackoffMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final Map<String, Double> baselineLatencyNanos = new HashMap<>();
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNanos = System.nanoTime();
+
+    static {
+        for (var endpoint : Endpoint.values()) {
+            LIMITERS.put(endpoint, new ConcurrencyLimiter(ENABLED,
+                    Config.getIntProperty("limiterInitialLimit", DEFAULT_INITIAL_LIMIT),
+                    Config.getIntProperty("limiterMinLimit", DEFAULT_MIN_LIMIT),
+                    Config.getIntProperty("limiterMaxLimit", DEFAULT_MAX_LIMIT),
+                    Config.getIntProperty("limiterBackoffPercent", DEFAULT_BACKOFF_PERCENT) / 100.0,
+                    Config.getIntProperty("limiterLatencyTolerance", DEFAULT_LATENCY_TOLERANCE),
+                    Config.getIntProperty("limiterMaxRetries", DEFAULT_MAX_RETRIES),
+                    Config.getIntProperty("limiterBackoffMillis", DEFAULT_BACKOFF_MILLIS)));
+        }
+    }
+
+    ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double latencyTolerance,
+                       int maxRetries, long baseBackoffMillis) {
+        this(true, initialLimit, minLimit, maxLimit, backoffRatio, latencyTolerance, maxRetries, baseBackoffMillis);
+    }
+
+    private ConcurrencyLimiter(boolean enabled, int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                               double latencyTolerance, int maxRetries, long baseBackoffMillis) {
+        this.enabled = enabled;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.maxRetries = maxRetries;
+        this.baseBackoffMillis = baseBackoffMillis;
+    }
+
+    public static ConcurrencyLimiter forEndpoint(Endpoint endpoint) {
+        return LIMITERS.get(endpoint);
+    }
+
+    public static ConcurrencyLimiter unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * Выполняет запрос в пределах лимита.
+     *
+     * @param method HTTP-метод запроса: по нему ведется базовая задержка, повторяются все методы, кроме POST
+     */
+    public Response execute(String method, Supplier<Response> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        var idempotent = !"POST".equals(method);
+        for (var attempt = 0; ; attempt++) {
+            acquire();
+            var start = System.nanoTime();
+            var overload = true;
+            try {
+                var response = call.get();
+                overload = OVERLOAD_STATUSES.contains(response.getStatusCode());
+                if (!overload || !idempotent || attempt >= maxRetries) {
+                    return response;
+                }
+            } catch (RuntimeException e) {
+                overload = isConnectionFailure(e);
+                if (!overload || !idempotent || attempt >= maxRetries) {
+                    throw e;
+                }
+            } finally {
+                release(method, start, overload);
+            }
+            if (!backoff(attempt)) {
+                throw new IllegalStateException("Interrupted while retrying request to overloaded server");
+            }
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Ожидание прерываемо: прерванный поток (например, при остановке executor'а) не висит в очереди за разрешением
+    private void acquire() {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                released.await();
+            }
+            inFlight++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a request permit", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(String method, long startNanos, boolean overload) {
+        var now = System.nanoTime();
+        var latencyNanos = now - startNanos;
+        lock.lock();
+        try {
+            var saturated = inFlight >= (int) limit;
+            inFlight--;
+            var baseline = baselineLatencyNanos.get(method);
+            var congested = overload || baseline != null && latencyNanos > baseline * latencyTolerance;
+            // Долгосрочное скользящее среднее: короткий всплеск задержки заметен на его фоне, но почти не сдвигает его
+            baselineLatencyNanos.put(method, baseline == null ? latencyNanos
+                    : baseline + (latencyNanos - baseline) * BASELINE_WEIGHT);
+            if (congested) {
+                // Запрос отправлен до предыдущего уменьшения: на его ответ лимит уже отреагировал
+                if (startNanos - lastDecreaseNanos > 0) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastDecreaseNanos = now;
+                }
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Полный разброс: случайная пауза от нуля до base * 2^attempt. false - поток прерван
+    private boolean backoff(int attempt) {
+        var maxDelay = baseBackoffMillis << Math.min(attempt, 10);
+        try {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(maxDelay + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static boolean isConnectionFailure(Throwable e) {
+        for (var cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrencyLimiter[limit=%d]".formatted(getLimit());
+    }
+}
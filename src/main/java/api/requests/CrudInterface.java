@@ -2,9 +2,12 @@ package api.requests;
 
 import api.models.BaseModel;
 
+import java.util.stream.Stream;
+
 public interface CrudInterface {
     Object create(BaseModel model);
     Object read(String id);
     Object update(String id, BaseModel model);
     Object delete(String id);
+    Stream<?> stream(String locator);
 }
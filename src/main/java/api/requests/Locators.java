@@ -0,0 +1,27 @@
+package api.requests;
+
+/**
+ * Разбор локаторов TeamCity вида "id:Project1" или "id:Project1,name:..."
+ */
+public final class Locators {
+    private static final String ID_DIMENSION = "id:";
+
+    private Locators() {
+    }
+
+    public static String byId(String id) {
+        return ID_DIMENSION + id;
+    }
+
+    public static String idOf(String locator) {
+        if (locator == null) {
+            return null;
+        }
+        for (var dimension : locator.split(",")) {
+            if (dimension.startsWith(ID_DIMENSION)) {
+                return dimension.substring(ID_DIMENSION.length());
+            }
+        }
+        return null;
+    }
+}
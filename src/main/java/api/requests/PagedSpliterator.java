@@ -0,0 +1,125 @@
+package api.requests;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Ленивый обход коллекции TeamCity по страницам (измерения локатора start и count).
+ * <p>
+ * Следующая страница запрашивается, только когда потребитель дочитал текущую, а элементы страницы разбираются
+ * потоковым парсером Jackson по одному. Поэтому в памяти находится не больше одной страницы ответа, сколько бы
+ * сущностей ни было на сервере. Страница короче pageSize считается последней.
+ */
+public final class PagedSpliterator<T> extends Spliterators.AbstractSpliterator<T> implements AutoCloseable {
+    private final PageLoader pageLoader;
+    private final ObjectReader reader;
+    private final String itemKey;
+    private final int pageSize;
+    private JsonParser parser;
+    private int start;
+    private int itemsInPage;
+    private boolean lastPage;
+
+    private PagedSpliterator(PageLoader pageLoader, ObjectReader reader, String itemKey, int pageSize) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.pageLoader = pageLoader;
+        this.reader = reader;
+        this.itemKey = itemKey;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * @param pageLoader загружает страницу (start, count), null - страниц больше нет
+     * @param reader     читатель модели элемента коллекции
+     * @param itemKey    поле ответа с массивом элементов, например "project"
+     */
+    public static <T> Stream<T> stream(PageLoader pageLoader, ObjectReader reader, String itemKey, int pageSize) {
+        var spliterator = new PagedSpliterator<T>(pageLoader, reader, itemKey, pageSize);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    // Локатор коллекции с измерениями страницы
+    public static String pageLocator(String locator, int start, int count) {
+        var page = "start:%d,count:%d".formatted(start, count);
+        return locator == null || locator.isBlank() ? page : locator + "," + page;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        try {
+            while (true) {
+                if (parser == null && (lastPage || !openPage())) {
+                    return false;
+                }
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    itemsInPage++;
+                    action.accept(reader.readValue(parser));
+                    return true;
+                }
+                closePage();
+            }
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Открывает следующую страницу и ставит парсер перед первым элементом массива
+    private boolean openPage() throws IOException {
+        var body = pageLoader.load(start, pageSize);
+        if (body == null) {
+            lastPage = true;
+            return false;
+        }
+        parser = reader.createParser(body);
+        itemsInPage = 0;
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Collection page is not a JSON object");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var field = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.START_ARRAY && itemKey.equals(field)) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        // Пустые коллекции TeamCity возвращает без массива элементов
+        closePage();
+        return false;
+    }
+
+    private void closePage() throws IOException {
+        parser.close();
+        parser = null;
+        start += itemsInPage;
+        lastPage = lastPage || itemsInPage < pageSize;
+    }
+
+    @Override
+    public void close() {
+        if (parser != null) {
+            try {
+                parser.close();
+            } catch (IOException ignored) {
+                // Страница уже не нужна
+            }
+            parser = null;
+        }
+        lastPage = true;
+    }
+
+    @FunctionalInterface
+    public interface PageLoader {
+        InputStream load(int start, int count);
+    }
+}
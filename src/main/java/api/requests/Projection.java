@@ -0,0 +1,91 @@
+package api.requests;
+
+import java.beans.Introspector;
+import java.io.Serializable;
+import java.lang.invoke.SerializedLambda;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Проекция модели для частичного ответа TeamCity (параметр fields).
+ * <p>
+ * Поля задаются ссылками на геттеры модели, например Projection.of(Project.class, Project::getName), и переводятся
+ * в выражение fields=name. Вложенные поля задаются через with: .with(Project::getParentProject,
+ * Projection.of(ParentProject.class, ParentProject::getId)) дает parentProject(id). Имя свойства берется из
+ * SerializedLambda ссылки на метод и кэшируется по классу лямбды.
+ */
+public final class Projection<T> {
+    private static final Map<Class<?>, String> PROPERTY_NAMES = new ConcurrentHashMap<>();
+
+    private final Class<T> modelClass;
+    private final List<String> fields;
+    private final String expression;
+
+    private Projection(Class<T> modelClass, List<String> fields) {
+        this.modelClass = modelClass;
+        this.fields = List.copyOf(fields);
+        this.expression = String.join(",", fields);
+    }
+
+    @SafeVarargs
+    public static <T> Projection<T> of(Class<T> modelClass, Getter<T, ?>... getters) {
+        var fields = new ArrayList<String>(getters.length);
+        for (var getter : getters) {
+            fields.add(propertyName(getter));
+        }
+        return new Projection<>(modelClass, fields);
+    }
+
+    public <R> Projection<T> with(Getter<T, R> getter, Projection<?> nested) {
+        var extendedFields = new ArrayList<>(fields);
+        extendedFields.add("%s(%s)".formatted(propertyName(getter), nested.fields()));
+        return new Projection<>(modelClass, extendedFields);
+    }
+
+    public Class<T> getModelClass() {
+        return modelClass;
+    }
+
+    // Значение параметра fields
+    public String fields() {
+        return expression;
+    }
+
+    @Override
+    public String toString() {
+        return "Projection[%s: %s]".formatted(modelClass.getSimpleName(), expression);
+    }
+
+    private static String propertyName(Getter<?, ?> getter) {
+        return PROPERTY_NAMES.computeIfAbsent(getter.getClass(), type -> {
+            var methodName = serializedLambda(getter).getImplMethodName();
+            if (methodName.startsWith("lambda$")) {
+                throw new IllegalArgumentException("Projection accepts getter method references only");
+            }
+            if (methodName.startsWith("get") && methodName.length() > 3) {
+                return Introspector.decapitalize(methodName.substring(3));
+            }
+            if (methodName.startsWith("is") && methodName.length() > 2) {
+                return Introspector.decapitalize(methodName.substring(2));
+            }
+            throw new IllegalArgumentException("Method %s is not a getter".formatted(methodName));
+        });
+    }
+
+    private static SerializedLambda serializedLambda(Getter<?, ?> getter) {
+        try {
+            var writeReplace = getter.getClass().getDeclaredMethod("writeReplace");
+            writeReplace.setAccessible(true);
+            return (SerializedLambda) writeReplace.invoke(getter);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("Cannot resolve getter of projection", e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Getter<T, R> extends Function<T, R>, Serializable {
+    }
+}
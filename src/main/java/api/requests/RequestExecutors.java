@@ -0,0 +1,35 @@
+package api.requests;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Общий executor для асинхронных запросов.
+ * <p>
+ * На JDK 21+ это виртуальные потоки (по потоку на запрос), на более старых JDK - кэширующий пул daemon-потоков.
+ * Метод для виртуальных потоков ищется через рефлексию, чтобы проект продолжал собираться на JDK 17.
+ */
+public final class RequestExecutors {
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    private RequestExecutors() {
+    }
+
+    public static ExecutorService shared() {
+        return EXECUTOR;
+    }
+
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            var threadNumber = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                var thread = new Thread(runnable, "async-request-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package api.requests.checked;
+
+import api.enums.Endpoint;
+import api.generators.TestDataStorage;
+import api.models.BaseModel;
+import api.requests.AsyncCrudInterface;
+import api.requests.Request;
+import api.requests.unchecked.AsyncUncheckedBase;
+import api.spec.ExchangeLog;
+import io.restassured.specification.RequestSpecification;
+import org.apache.http.HttpStatus;
+
+import java.util.concurrent.CompletableFuture;
+
+@SuppressWarnings("unchecked")
+public final class AsyncCheckedBase<T extends BaseModel> extends Request implements AsyncCrudInterface {
+    private final AsyncUncheckedBase asyncUncheckedBase;
+
+    public AsyncCheckedBase(RequestSpecification spec, Endpoint endpoint) {
+        super(spec, endpoint);
+        this.asyncUncheckedBase = new AsyncUncheckedBase(spec, endpoint);
+    }
+
+    @Override
+    public CompletableFuture<T> create(BaseModel model) {
+        // Хранилище и лог берутся в вызывающем потоке, так как ответ обрабатывается в потоке executor'а
+        var storage = TestDataStorage.getStorage();
+        var log = ExchangeLog.current();
+        return asyncUncheckedBase
+                .create(model)
+                .thenApply(response -> {
+                    var createdModel = log.dumpOnFailure(() -> (T) response
+                            .then().assertThat().statusCode(HttpStatus.SC_OK)
+                            .extract().as(endpoint.getModelClass()));
+                    storage.addCreatedEntity(endpoint, createdModel);
+                    return createdModel;
+                });
+    }
+
+    @Override
+    public CompletableFuture<T> read(String id) {
+        var log = ExchangeLog.current();
+        return asyncUncheckedBase
+                .read(id)
+                .thenApply(response -> log.dumpOnFailure(() -> (T) response
+                        .then().assertThat().statusCode(HttpStatus.SC_OK)
+                        .extract().as(endpoint.getModelClass())));
+    }
+
+    @Override
+    public CompletableFuture<T> update(String id, BaseModel model) {
+        var log = ExchangeLog.current();
+        return asyncUncheckedBase
+                .update(id, model)
+                .thenApply(response -> log.dumpOnFailure(() -> (T) response
+                        .then().assertThat().statusCode(HttpStatus.SC_OK)
+                        .extract().as(endpoint.getModelClass())));
+    }
+
+    @Override
+    public CompletableFuture<String> delete(String id) {
+        var log = ExchangeLog.current();
+        return asyncUncheckedBase
+                .delete(id)
+                .thenApply(response -> log.dumpOnFailure(() -> response
+                        .then().assertThat().statusCode(HttpStatus.SC_OK)
+                        .extract().asString()));
+    }
+}
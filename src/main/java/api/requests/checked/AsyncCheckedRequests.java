@@ -0,0 +1,22 @@
+package api.requests.checked;
+
+import api.enums.Endpoint;
+import api.models.BaseModel;
+import io.restassured.specification.RequestSpecification;
+
+import java.util.EnumMap;
+
+public class AsyncCheckedRequests {
+    private final EnumMap<Endpoint, AsyncCheckedBase<?>> requests = new EnumMap<>(Endpoint.class);
+
+    public AsyncCheckedRequests(RequestSpecification spec) {
+        for (var endpoint: Endpoint.values()) {
+            requests.put(endpoint, new AsyncCheckedBase<>(spec, endpoint));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends BaseModel> AsyncCheckedBase<T> getRequest(Endpoint endpoint) {
+        return (AsyncCheckedBase<T>) requests.get(endpoint);
+    }
+}
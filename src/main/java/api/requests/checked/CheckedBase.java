@@ -4,11 +4,17 @@ import api.enums.Endpoint;
 import api.generators.TestDataStorage;
 import api.models.BaseModel;
 import api.requests.CrudInterface;
+import api.requests.PagedSpliterator;
+import api.requests.Projection;
 import api.requests.Request;
 import api.requests.unchecked.UncheckedBase;
+import api.spec.ExchangeLog;
+import api.spec.ModelMapper;
 import io.restassured.specification.RequestSpecification;
 import org.apache.http.HttpStatus;
 
+import java.util.stream.Stream;
+
 @SuppressWarnings("unchecked")
 public final class CheckedBase<T extends BaseModel> extends Request implements CrudInterface {
     private final UncheckedBase uncheckedBase;
@@ -18,37 +24,61 @@ public final class CheckedBase<T extends BaseModel> extends Request implements C
         this.uncheckedBase = new UncheckedBase(spec, endpoint);
     }
 
+    // При падении проверки статуса выводятся последние HTTP-обмены теста
     @Override
     public T create(BaseModel model) {
-        var createdModel = (T) uncheckedBase
+        var createdModel = ExchangeLog.current().dumpOnFailure(() -> (T) uncheckedBase
                 .create(model)
                 .then().assertThat().statusCode(HttpStatus.SC_OK)
-                .extract().as(endpoint.getModelClass());
+                .extract().as(endpoint.getModelClass()));
         TestDataStorage.getStorage().addCreatedEntity(endpoint, createdModel);
         return createdModel;
     }
 
     @Override
     public T read(String id) {
-        return (T) uncheckedBase
+        return ExchangeLog.current().dumpOnFailure(() -> (T) uncheckedBase
                 .read(id)
                 .then().assertThat().statusCode(HttpStatus.SC_OK)
-                .extract().as(endpoint.getModelClass());
+                .extract().as(endpoint.getModelClass()));
+    }
+
+    // Модель заполняется только полями проекции
+    public T read(String id, Projection<T> projection) {
+        return read(id, projection, projection.getModelClass());
+    }
+
+    // Ответ с полями проекции читается в облегченный тип, например record с нужными полями
+    public <P> P read(String id, Projection<?> projection, Class<P> type) {
+        return ExchangeLog.current().dumpOnFailure(() -> uncheckedBase
+                .read(id, projection)
+                .then().assertThat().statusCode(HttpStatus.SC_OK)
+                .extract().as(type));
     }
 
     @Override
     public T update(String id, BaseModel model) {
-        return (T) uncheckedBase
+        return ExchangeLog.current().dumpOnFailure(() -> (T) uncheckedBase
                 .update(id, model)
                 .then().assertThat().statusCode(HttpStatus.SC_OK)
-                .extract().as(endpoint.getModelClass());
+                .extract().as(endpoint.getModelClass()));
     }
 
     @Override
     public Object delete(String id) {
-        return uncheckedBase
+        return ExchangeLog.current().dumpOnFailure(() -> uncheckedBase
                 .delete(id)
                 .then().assertThat().statusCode(HttpStatus.SC_OK)
-                .extract().asString();
+                .extract().asString());
+    }
+
+    // Ленивый обход всех сущностей по локатору, каждая страница проверяется на успешный статус
+    @Override
+    public Stream<T> stream(String locator) {
+        return PagedSpliterator.stream((start, count) -> ExchangeLog.current().dumpOnFailure(() -> uncheckedBase
+                .readPage(locator, start, count)
+                .then().assertThat().statusCode(HttpStatus.SC_OK)
+                .extract().response().asInputStream()),
+                ModelMapper.reader(endpoint), endpoint.getItemKey(), UncheckedBase.streamPageSize());
     }
 }
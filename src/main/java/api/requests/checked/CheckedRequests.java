@@ -5,18 +5,51 @@ import api.enums.Endpoint;
 import api.models.BaseModel;
 import io.restassured.specification.RequestSpecification;
 
+import java.util.Arrays;
 import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class CheckedRequests {
     private final EnumMap<Endpoint, CheckedBase<?>> requests = new EnumMap<>(Endpoint.class);
+    private final EnumMap<Endpoint, AsyncCheckedBase<?>> asyncRequests = new EnumMap<>(Endpoint.class);
 
     public CheckedRequests(RequestSpecification spec) {
         for (var endpoint: Endpoint.values()) {
             requests.put(endpoint, new CheckedBase<>(spec, endpoint));
+            asyncRequests.put(endpoint, new AsyncCheckedBase<>(spec, endpoint));
         }
     }
 
     public <T extends BaseModel> CheckedBase<T> getRequest(Endpoint endpoint) {
         return (CheckedBase<T>) requests.get(endpoint);
     }
+
+    /**
+     * Создает набор связанных моделей (например, generatedModels из TestDataGenerator). Модели разбиваются на уровни
+     * по зависимостям (см. {@link CreationOrder}), модели одного уровня создаются параллельно, поэтому время
+     * создания - примерно один запрос на уровень. Возвращает созданные модели в порядке переданных.
+     */
+    public List<BaseModel> createAll(List<? extends BaseModel> models) {
+        var createdModels = new BaseModel[models.size()];
+        for (var level : CreationOrder.levels(models)) {
+            var futures = level.stream()
+                    .map(index -> asyncRequests.get(Endpoint.fromModelClass(models.get(index).getClass()))
+                            .create(models.get(index))
+                            .thenAccept(createdModel -> createdModels[index] = createdModel))
+                    .toArray(CompletableFuture[]::new);
+            try {
+                CompletableFuture.allOf(futures).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                } else if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        return Arrays.asList(createdModels);
+    }
 }
\ No newline at end of file
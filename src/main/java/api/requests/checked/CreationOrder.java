@@ -0,0 +1,101 @@
+package api.requests.checked;
+
+import api.models.BaseModel;
+import api.models.Build;
+import api.models.BuildType;
+import api.models.Project;
+import api.requests.Locators;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Разбивает набор моделей на уровни по зависимостям между ними: модели одного уровня не зависят друг от друга
+ * и могут создаваться параллельно, а каждый уровень зависит только от предыдущих.
+ * <p>
+ * Зависимости определяются по ParentProject и SourceProject проекта (от проекта-источника зависят также его
+ * build types, так как при копировании они должны уже существовать), по BuildType.project и по Build.buildType.
+ * Учитываются только зависимости на модели из этого же набора.
+ */
+final class CreationOrder {
+
+    private CreationOrder() {
+    }
+
+    static List<List<Integer>> levels(List<? extends BaseModel> models) {
+        var projectIndexes = new HashMap<String, Integer>();
+        var buildTypeIndexes = new HashMap<String, Integer>();
+        var buildTypeIndexesByProject = new HashMap<String, List<Integer>>();
+        for (var i = 0; i < models.size(); i++) {
+            if (models.get(i) instanceof Project project && project.getId() != null) {
+                projectIndexes.put(project.getId(), i);
+            } else if (models.get(i) instanceof BuildType buildType) {
+                if (buildType.getId() != null) {
+                    buildTypeIndexes.put(buildType.getId(), i);
+                }
+                if (buildType.getProject() != null) {
+                    buildTypeIndexesByProject.computeIfAbsent(buildType.getProject().getId(), key -> new ArrayList<>())
+                            .add(i);
+                }
+            }
+        }
+
+        var dependencies = new ArrayList<List<Integer>>();
+        for (var model : models) {
+            var modelDependencies = new ArrayList<Integer>();
+            if (model instanceof Project project) {
+                if (project.getParentProject() != null) {
+                    var parentId = project.getParentProject().getId() != null ? project.getParentProject().getId()
+                            : Locators.idOf(project.getParentProject().getLocator());
+                    addIfPresent(modelDependencies, projectIndexes.get(parentId));
+                }
+                if (project.getSourceProject() != null) {
+                    var sourceId = Locators.idOf(project.getSourceProject().getLocator());
+                    addIfPresent(modelDependencies, projectIndexes.get(sourceId));
+                    modelDependencies.addAll(buildTypeIndexesByProject.getOrDefault(sourceId, List.of()));
+                }
+            } else if (model instanceof BuildType buildType && buildType.getProject() != null) {
+                addIfPresent(modelDependencies, projectIndexes.get(buildType.getProject().getId()));
+            } else if (model instanceof Build build && build.getBuildType() != null) {
+                addIfPresent(modelDependencies, buildTypeIndexes.get(build.getBuildType().getId()));
+            }
+            dependencies.add(modelDependencies);
+        }
+
+        var depths = new int[models.size()];
+        var levels = new TreeMap<Integer, List<Integer>>();
+        for (var i = 0; i < models.size(); i++) {
+            levels.computeIfAbsent(depth(i, dependencies, depths, new boolean[models.size()]), key -> new ArrayList<>())
+                    .add(i);
+        }
+        return new ArrayList<>(levels.values());
+    }
+
+    // depths хранит глубину + 1, чтобы 0 означал "еще не посчитано"
+    private static int depth(int index, List<List<Integer>> dependencies, int[] depths, boolean[] visiting) {
+        if (depths[index] > 0) {
+            return depths[index] - 1;
+        }
+        if (visiting[index]) {
+            throw new IllegalStateException("Cyclic dependency between models to create");
+        }
+        visiting[index] = true;
+        var depth = 0;
+        for (var dependency : dependencies.get(index)) {
+            if (dependency != index) {
+                depth = Math.max(depth, depth(dependency, dependencies, depths, visiting) + 1);
+            }
+        }
+        visiting[index] = false;
+        depths[index] = depth + 1;
+        return depth;
+    }
+
+    private static void addIfPresent(List<Integer> dependencies, Integer index) {
+        if (index != null) {
+            dependencies.add(index);
+        }
+    }
+}
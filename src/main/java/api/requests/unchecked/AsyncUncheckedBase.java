@@ -0,0 +1,60 @@
+package api.requests.unchecked;
+
+import api.enums.Endpoint;
+import api.models.BaseModel;
+import api.requests.AsyncCrudInterface;
+import api.requests.Request;
+import api.requests.RequestExecutors;
+import api.spec.ExchangeLog;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+public class AsyncUncheckedBase extends Request implements AsyncCrudInterface {
+    private final UncheckedBase uncheckedBase;
+    private final Executor executor;
+
+    public AsyncUncheckedBase(RequestSpecification spec, Endpoint endpoint) {
+        this(spec, endpoint, RequestExecutors.shared());
+    }
+
+    public AsyncUncheckedBase(RequestSpecification spec, Endpoint endpoint, Executor executor) {
+        super(spec, endpoint);
+        this.uncheckedBase = new UncheckedBase(spec, endpoint);
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Response> create(BaseModel model) {
+        return supply(() -> uncheckedBase.create(model));
+    }
+
+    @Override
+    public CompletableFuture<Response> read(String id) {
+        return supply(() -> uncheckedBase.read(id));
+    }
+
+    public CompletableFuture<Response> read(String id, Map<String, Object> queryParams) {
+        return supply(() -> uncheckedBase.read(id, queryParams));
+    }
+
+    @Override
+    public CompletableFuture<Response> update(String id, BaseModel model) {
+        return supply(() -> uncheckedBase.update(id, model));
+    }
+
+    @Override
+    public CompletableFuture<Response> delete(String id) {
+        return supply(() -> uncheckedBase.delete(id));
+    }
+
+    // Запрос выполняется в другом потоке, поэтому буфер лога вызывающего теста привязывается к нему явно
+    private CompletableFuture<Response> supply(Supplier<Response> request) {
+        var log = ExchangeLog.current();
+        return CompletableFuture.supplyAsync(() -> ExchangeLog.callWith(log, request), executor);
+    }
+}
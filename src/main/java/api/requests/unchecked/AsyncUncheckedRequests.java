@@ -0,0 +1,20 @@
+package api.requests.unchecked;
+
+import api.enums.Endpoint;
+import io.restassured.specification.RequestSpecification;
+
+import java.util.EnumMap;
+
+public class AsyncUncheckedRequests {
+    private final EnumMap<Endpoint, AsyncUncheckedBase> requests = new EnumMap<>(Endpoint.class);
+
+    public AsyncUncheckedRequests(RequestSpecification spec) {
+        for (var endpoint: Endpoint.values()) {
+            requests.put(endpoint, new AsyncUncheckedBase(spec, endpoint));
+        }
+    }
+
+    public AsyncUncheckedBase getRequest(Endpoint endpoint) {
+        return requests.get(endpoint);
+    }
+}
@@ -0,0 +1,76 @@
+package api.requests.unchecked;
+
+import api.config.Config;
+import api.enums.Endpoint;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Общий кэш ответов на чтение сущностей с условными запросами.
+ * <p>
+ * Успешный ответ запоминается, если сервер прислал ETag или Last-Modified. Следующее чтение той же сущности с той же
+ * спецификацией и параметрами уходит с If-None-Match/If-Modified-Since, и на 304 возвращается сохраненный ответ.
+ * Актуальность всегда подтверждает сервер, поэтому кэш экономит только тело ответа. update и delete через любой
+ * UncheckedBase сбрасывают записи сущности. Размер задается readCacheSize (LRU), 0 отключает кэш.
+ */
+final class ReadCache {
+    private static final int DEFAULT_SIZE = 256;
+    private static final ReadCache SHARED = new ReadCache(Config.getIntProperty("readCacheSize", DEFAULT_SIZE));
+    private static final ReadCache DISABLED = new ReadCache(0);
+
+    private final int maxSize;
+    private final LinkedHashMap<Key, Entry> entries;
+
+    ReadCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > ReadCache.this.maxSize;
+            }
+        };
+    }
+
+    static ReadCache shared() {
+        return SHARED;
+    }
+
+    static ReadCache disabled() {
+        return DISABLED;
+    }
+
+    boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    synchronized Entry get(Key key) {
+        return entries.get(key);
+    }
+
+    void put(Key key, Response response) {
+        var eTag = response.getHeader("ETag");
+        var lastModified = response.getHeader("Last-Modified");
+        synchronized (this) {
+            if (eTag == null && lastModified == null) {
+                entries.remove(key);
+            } else {
+                entries.put(key, new Entry(response, eTag, lastModified));
+            }
+        }
+    }
+
+    synchronized void invalidate(Endpoint endpoint, String id) {
+        entries.keySet().removeIf(key -> key.endpoint() == endpoint && Objects.equals(key.id(), id));
+    }
+
+    // Спецификации кэшируются в Specifications, поэтому сравниваются по ссылке и разделяют записи разных пользователей
+    record Key(RequestSpecification spec, Endpoint endpoint, String id, Map<String, Object> queryParams) {
+    }
+
+    record Entry(Response response, String eTag, String lastModified) {
+    }
+}
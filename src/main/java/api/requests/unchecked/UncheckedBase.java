@@ -1,61 +1,148 @@
 package api.requests.unchecked;
 
 
+import api.config.Config;
 import api.enums.Endpoint;
+import api.generators.Sandbox;
 import api.models.BaseModel;
+import api.requests.ConcurrencyLimiter;
 import api.requests.CrudInterface;
+import api.requests.PagedSpliterator;
+import api.requests.Projection;
 import api.requests.Request;
+import api.spec.ModelMapper;
+import api.spec.NodeRouter;
 import io.restassured.RestAssured;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
+import org.apache.http.HttpStatus;
 
 import java.util.Map;
+import java.util.stream.Stream;
 
 public class UncheckedBase extends Request implements CrudInterface {
+    private static final int DEFAULT_STREAM_PAGE_SIZE = 100;
+    // Все запросы к Endpoint проходят через общий адаптивный лимит, повторяются только идемпотентные
+    private final ConcurrencyLimiter limiter;
+    private final ReadCache cache;
 
     public UncheckedBase(RequestSpecification spec, Endpoint endpoint) {
+        this(spec, endpoint, ConcurrencyLimiter.forEndpoint(endpoint), ReadCache.shared());
+    }
+
+    private UncheckedBase(RequestSpecification spec, Endpoint endpoint, ConcurrencyLimiter limiter, ReadCache cache) {
         super(spec, endpoint);
+        this.limiter = limiter;
+        this.cache = cache;
+    }
+
+    // Без лимита, повторов и ReadCache: каждый вызов - ровно один запрос к серверу (нагрузочный прогон)
+    public static UncheckedBase direct(RequestSpecification spec, Endpoint endpoint) {
+        return new UncheckedBase(spec, endpoint, ConcurrencyLimiter.unlimited(), ReadCache.disabled());
     }
 
     @Override
     public Response create(BaseModel model) {
-        return RestAssured
+        Sandbox.global().ensureCreatedFor(model);
+        return limiter.execute("POST", () -> RestAssured
                 .given()
                 .spec(spec)
                 .body(model)
-                .post(endpoint.getUrl());
+                .post(endpoint.getUrl()));
     }
 
     @Override
     public Response read(String id) {
-        return RestAssured
-                .given()
-                .spec(spec)
-                .get(endpoint.getUrl() + "/id:" + id);
+        return read(id, Map.of());
     }
 
+    // Повторное чтение той же сущности уходит условным запросом, на 304 возвращается ответ из ReadCache
     public Response read(String id, Map<String, Object> queryParams) {
-        return RestAssured
-                .given()
-                .spec(spec)
-                .queryParams(queryParams)
-                .get(endpoint.getUrl() + "/id:" + id);
+        if (!cache.isEnabled()) {
+            return get(id, queryParams, null);
+        }
+        var key = new ReadCache.Key(spec, endpoint, id, queryParams);
+        var cached = cache.get(key);
+        var response = get(id, queryParams, cached);
+        if (cached != null && response.getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+            return cached.response();
+        }
+        if (response.getStatusCode() == HttpStatus.SC_OK) {
+            cache.put(key, response);
+        } else {
+            cache.invalidate(endpoint, id);
+        }
+        return response;
+    }
+
+    // Частичное чтение: сервер отдает только поля проекции
+    public Response read(String id, Projection<?> projection) {
+        return read(id, Map.of("fields", projection.fields()));
+    }
+
+    // Запрос собирается заново при каждой попытке: фильтр маршрутизации меняет базовый URI спецификации
+    private Response get(String id, Map<String, Object> queryParams, ReadCache.Entry cached) {
+        return limiter.execute("GET", () -> NodeRouter.global().withFailover(() -> {
+            var request = RestAssured
+                    .given()
+                    .spec(spec)
+                    .queryParams(queryParams);
+            if (cached != null && cached.eTag() != null) {
+                request.header("If-None-Match", cached.eTag());
+            }
+            if (cached != null && cached.lastModified() != null) {
+                request.header("If-Modified-Since", cached.lastModified());
+            }
+            return request.get(endpoint.getUrl() + "/id:" + id);
+        }));
     }
 
     @Override
     public Response update(String id, BaseModel model) {
-        return RestAssured
+        cache.invalidate(endpoint, id);
+        return limiter.execute("PUT", () -> RestAssured
                 .given()
-                .body(model)
                 .spec(spec)
-                .put(endpoint.getUrl() + "/id:" + id);
+                .body(model)
+                .put(endpoint.getUrl() + "/id:" + id));
     }
 
     @Override
     public Response delete(String id) {
-        return RestAssured
+        cache.invalidate(endpoint, id);
+        return limiter.execute("DELETE", () -> RestAssured
+                .given()
+                .spec(spec)
+                .delete(endpoint.getUrl() + "/id:" + id));
+    }
+
+    // Страница коллекции: locator - условия поиска TeamCity, к ним добавляются start и count
+    public Response readPage(String locator, int start, int count) {
+        return limiter.execute("GET", () -> NodeRouter.global().withFailover(() -> RestAssured
                 .given()
                 .spec(spec)
-                .delete(endpoint.getUrl() + "/id:" + id);
+                .queryParam("locator", PagedSpliterator.pageLocator(locator, start, count))
+                .get(endpoint.getUrl())));
+    }
+
+    // Ленивый обход всех сущностей по локатору. Неуспешная первая страница дает пустой поток, а неуспешная
+    // следующая - исключение, чтобы обрыв обхода на середине не выглядел как конец коллекции
+    @Override
+    public Stream<BaseModel> stream(String locator) {
+        return PagedSpliterator.stream((start, count) -> {
+            var response = readPage(locator, start, count);
+            if (response.getStatusCode() == HttpStatus.SC_OK) {
+                return response.asInputStream();
+            }
+            if (start == 0) {
+                return null;
+            }
+            throw new IllegalStateException("Cannot read %s page at offset %d: HTTP %d %s"
+                    .formatted(endpoint, start, response.getStatusCode(), response.asString()));
+        }, ModelMapper.reader(endpoint), endpoint.getItemKey(), streamPageSize());
+    }
+
+    public static int streamPageSize() {
+        return Config.getIntProperty("streamPageSize", DEFAULT_STREAM_PAGE_SIZE);
     }
 }
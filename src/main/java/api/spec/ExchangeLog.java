@@ -0,0 +1,151 @@
+package api.spec;
+
+import api.config.Config;
+import io.restassured.response.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Кольцевой буфер последних HTTP-обменов теста.
+ * <p>
+ * Запись в буфер не блокируется и ничего не форматирует: сохраняются только ссылки на запрос и ответ. Содержимое
+ * выводится только при падении теста или проверки статуса в CheckedBase, причем форматирование и вывод выполняются
+ * в фоновом потоке. Буфер привязывается к потоку теста через open()/close(), обмены вне теста пишутся в общий
+ * буфер. Размер задается exchangeLogCapacity.
+ */
+public final class ExchangeLog {
+    private static final int DEFAULT_CAPACITY = 50;
+    private static final int CAPACITY = Math.max(1, Config.getIntProperty("exchangeLogCapacity", DEFAULT_CAPACITY));
+    private static final ExchangeLog GLOBAL_LOG = new ExchangeLog(CAPACITY);
+    private static final ThreadLocal<ExchangeLog> CURRENT_LOG = new ThreadLocal<>();
+    private static final ExecutorService APPENDER = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "exchange-log-appender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            APPENDER.shutdown();
+            try {
+                APPENDER.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+    }
+
+    private final int capacity;
+    private final AtomicReferenceArray<Exchange> exchanges;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong dumpedSequence = new AtomicLong();
+
+    ExchangeLog(int capacity) {
+        this.capacity = capacity;
+        this.exchanges = new AtomicReferenceArray<>(capacity);
+    }
+
+    public static ExchangeLog open() {
+        var log = new ExchangeLog(CAPACITY);
+        CURRENT_LOG.set(log);
+        return log;
+    }
+
+    public static void close() {
+        CURRENT_LOG.remove();
+    }
+
+    public static ExchangeLog current() {
+        var log = CURRENT_LOG.get();
+        return log != null ? log : GLOBAL_LOG;
+    }
+
+    // Выполняет действие с указанным буфером, привязанным к текущему потоку (для запросов в других потоках)
+    public static <R> R callWith(ExchangeLog log, Supplier<R> action) {
+        var previous = CURRENT_LOG.get();
+        CURRENT_LOG.set(log);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT_LOG.set(previous);
+            } else {
+                CURRENT_LOG.remove();
+            }
+        }
+    }
+
+    void record(String method, String uri, Object requestBody, Response response, Throwable error,
+                long durationNanos) {
+        var number = sequence.getAndIncrement();
+        exchanges.set((int) (number % capacity), new Exchange(number, method, uri, requestBody, response, error,
+                durationNanos, Thread.currentThread().getName()));
+    }
+
+    public <R> R dumpOnFailure(Supplier<R> check) {
+        try {
+            return check.get();
+        } catch (AssertionError e) {
+            dump(e.getMessage());
+            throw e;
+        }
+    }
+
+    // Выводит обмены, которые еще не выводились, поэтому повторное падение того же теста не дублирует лог
+    public void dump(String reason) {
+        var toDump = takeUndumped();
+        if (toDump.isEmpty()) {
+            return;
+        }
+        APPENDER.execute(() -> {
+            var builder = new StringBuilder("=== HTTP exchanges: ").append(reason).append(System.lineSeparator());
+            toDump.forEach(exchange -> exchange.appendTo(builder));
+            System.out.print(builder);
+        });
+    }
+
+    // Еще не выведенные обмены, которые остались в буфере, по порядку записи
+    List<Exchange> takeUndumped() {
+        var end = sequence.get();
+        var start = Math.max(dumpedSequence.getAndSet(end), end - capacity);
+        var undumped = new ArrayList<Exchange>();
+        for (var i = 0; i < capacity; i++) {
+            var exchange = exchanges.get(i);
+            if (exchange != null && exchange.number() >= start && exchange.number() < end) {
+                undumped.add(exchange);
+            }
+        }
+        undumped.sort(Comparator.comparingLong(Exchange::number));
+        return undumped;
+    }
+
+    record Exchange(long number, String method, String uri, Object requestBody, Response response,
+                            Throwable error, long durationNanos, String threadName) {
+
+        void appendTo(StringBuilder builder) {
+            builder.append(">>> ").append(method).append(' ').append(uri)
+                    .append(" (").append(TimeUnit.NANOSECONDS.toMillis(durationNanos)).append(" ms, ")
+                    .append(threadName).append(')').append(System.lineSeparator());
+            if (requestBody != null) {
+                builder.append(requestBody instanceof byte[] bytes
+                        ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(requestBody))
+                        .append(System.lineSeparator());
+            }
+            if (response != null) {
+                builder.append("<<< ").append(response.getStatusLine()).append(System.lineSeparator())
+                        .append(response.asString()).append(System.lineSeparator());
+            } else {
+                builder.append("<<< ").append(error).append(System.lineSeparator());
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package api.spec;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * Записывает каждый обмен в {@link ExchangeLog} текущего теста вместо вывода в консоль.
+ */
+public class ExchangeLogFilter implements Filter {
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        var log = ExchangeLog.current();
+        var start = System.nanoTime();
+        try {
+            var response = ctx.next(requestSpec, responseSpec);
+            log.record(requestSpec.getMethod(), requestSpec.getURI(), requestSpec.getBody(), response, null,
+                    System.nanoTime() - start);
+            return response;
+        } catch (RuntimeException e) {
+            log.record(requestSpec.getMethod(), requestSpec.getURI(), requestSpec.getBody(), null, e,
+                    System.nanoTime() - start);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package api.spec;
+
+import api.config.Config;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Архив HTTP-обменов для записи прогона и его воспроизведения без сервера (httpArchiveMode=record или replay).
+ * <p>
+ * Архив - файл httpArchiveFile, отображенный в память: заголовок (сигнатура, версия, seed и пространство имен
+ * RandomData прогона) и записи обменов, которые только дописываются в конец. Запись - длина и поля: метод, путь
+ * с параметрами, нормализованное тело запроса, статус, заголовки и тело ответа. Нулевая длина означает конец архива,
+ * поэтому архив прерванного прогона читается до последней целиком записанной записи. Каждый форк с пространством
+ * имен пишет свой файл (http-archive-s0w1.bin рядом с http-archive.bin), при воспроизведении читаются все файлы.
+ * <p>
+ * Секреты в архив не попадают: заголовки Set-Cookie и Authorization не записываются, а значения полей password
+ * в теле запроса заменяются на {@value #MASKED_SECRET} (и при записи, и при поиске ответа).
+ * <p>
+ * При воспроизведении архив читается один раз, тела ответов не копируются из отображенного файла до выдачи ответа.
+ * Запрос сопоставляется с записанным по методу, пути и телу, одинаковые запросы получают ответы в порядке записи.
+ * Если точного совпадения нет (например, тесты шли параллельно и сгенерированные имена достались другим тестам),
+ * сопоставление повторяется с замаскированными значениями RandomData.
+ */
+public final class HttpArchive {
+    private static final int MAGIC = 0x54434841;
+    private static final int VERSION = 1;
+    private static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final String DEFAULT_FILE = "build/http-archive.bin";
+    private static final String HTTP_AUTH_PREFIX = "/httpAuth";
+    private static final Pattern RANDOM_VALUE = Pattern.compile("test_[A-Za-z0-9_]+");
+    private static final Set<String> SECRET_HEADERS = Set.of("set-cookie", "authorization");
+    private static final String SECRET_FIELD = "password";
+    private static final String MASKED_SECRET = "***";
+    private static final ObjectMapper BODY_MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
+    private HttpArchive() {
+    }
+
+    public enum Mode {
+        OFF,
+        RECORD,
+        REPLAY
+    }
+
+    public static Mode mode() {
+        var mode = Config.getProperty("httpArchiveMode");
+        return mode == null || mode.isBlank() ? Mode.OFF : Mode.valueOf(mode.trim().toUpperCase());
+    }
+
+    public static Path file() {
+        var file = Config.getProperty("httpArchiveFile");
+        return Path.of(file == null || file.isBlank() ? DEFAULT_FILE : file.trim());
+    }
+
+    // Файл записи форка: у каждого пространства имен RandomData свой файл, чтобы форки не писали в один
+    public static Path recordFile(String namespace) {
+        var file = file();
+        if (namespace == null || namespace.isEmpty()) {
+            return file;
+        }
+        var name = file.getFileName().toString();
+        var dot = name.lastIndexOf('.');
+        var forkName = dot > 0 ? name.substring(0, dot) + "-" + namespace + name.substring(dot)
+                : name + "-" + namespace;
+        return file.resolveSibling(forkName);
+    }
+
+    // Все файлы записи: общий файл и файлы форков, в порядке имен
+    public static List<Path> replayFiles() {
+        var file = file();
+        var name = file.getFileName().toString();
+        var dot = name.lastIndexOf('.');
+        var stem = dot > 0 ? name.substring(0, dot) : name;
+        var extension = dot > 0 ? name.substring(dot) : "";
+        var directory = file.toAbsolutePath().getParent();
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (var files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(path -> {
+                        var fileName = path.getFileName().toString();
+                        return fileName.equals(name)
+                                || fileName.startsWith(stem + "-") && fileName.endsWith(extension);
+                    })
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list HTTP archives in " + directory, e);
+        }
+    }
+
+    // Seed и пространство имен записанного прогона, чтобы при воспроизведении генерировались те же имена сущностей.
+    // Если прогон писали несколько форков, неизвестно, какой форк какой файл записал: тогда null, и ответы
+    // находятся по замаскированным значениям RandomData
+    public static RunInfo replayRunInfo() {
+        if (mode() != Mode.REPLAY) {
+            return null;
+        }
+        var files = replayFiles();
+        if (files.size() != 1) {
+            return null;
+        }
+        try (var channel = FileChannel.open(files.get(0), StandardOpenOption.READ)) {
+            return readRunInfo(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read HTTP archive " + files.get(0), e);
+        }
+    }
+
+    // Путь с параметрами без хоста, логина и префикса /httpAuth: архив не зависит от сервера и режима авторизации
+    static String normalizePath(String uri) {
+        URI parsed;
+        try {
+            parsed = URI.create(uri);
+        } catch (IllegalArgumentException e) {
+            return uri;
+        }
+        var path = parsed.getRawPath() == null ? "" : parsed.getRawPath();
+        if (path.startsWith(HTTP_AUTH_PREFIX)) {
+            path = path.substring(HTTP_AUTH_PREFIX.length());
+        }
+        return parsed.getRawQuery() == null ? path : path + "?" + parsed.getRawQuery();
+    }
+
+    // JSON с полями в алфавитном порядке и замаскированными паролями, остальные тела - как есть
+    static String normalizeBody(Object body) {
+        if (body == null) {
+            return "";
+        }
+        var text = body instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(body);
+        try {
+            return BODY_MAPPER.writeValueAsString(maskSecrets(BODY_MAPPER.readValue(text, Object.class)));
+        } catch (IOException e) {
+            return text.trim();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object maskSecrets(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            ((Map<String, Object>) map).replaceAll((field, fieldValue) -> SECRET_FIELD.equalsIgnoreCase(field)
+                    && fieldValue != null ? MASKED_SECRET : maskSecrets(fieldValue));
+        } else if (value instanceof List<?> list) {
+            ((List<Object>) list).replaceAll(HttpArchive::maskSecrets);
+        }
+        return value;
+    }
+
+    private static String key(String method, String path, String body) {
+        return method + " " + path + "\n" + body;
+    }
+
+    private static String maskedKey(String key) {
+        return RANDOM_VALUE.matcher(key).replaceAll("test_*");
+    }
+
+    private static RunInfo readRunInfo(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not an HTTP archive");
+        }
+        var version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported HTTP archive version " + version);
+        }
+        return new RunInfo(buffer.getLong(), readString(buffer));
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        var bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        var bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Параметры записанного прогона из заголовка архива
+    public record RunInfo(long seed, String namespace) {
+    }
+
+    /**
+     * Запись архива. Запись кодируется вне блокировки, под блокировкой только копируется в отображенную область;
+     * когда область заканчивается, отображается следующая, начиная с текущей позиции.
+     */
+    static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private MappedByteBuffer region;
+        private long regionStart;
+        private boolean closed;
+
+        Writer(Path file, RunInfo runInfo) throws IOException {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            var bytes = new ByteArrayOutputStream();
+            var output = new DataOutputStream(bytes);
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(runInfo.seed());
+            writeString(output, runInfo.namespace());
+            map(0, bytes.size());
+            region.put(bytes.toByteArray());
+        }
+
+        void append(String method, String uri, Object requestBody, Response response) {
+            append(method, uri, requestBody, response.getStatusCode(), response.getStatusLine(),
+                    response.getContentType(), response.getHeaders().asList(), response.asByteArray());
+        }
+
+        void append(String method, String uri, Object requestBody, int statusCode, String statusLine,
+                    String contentType, List<Header> headers, byte[] body) {
+            var recordedHeaders = headers.stream()
+                    .filter(header -> !SECRET_HEADERS.contains(header.getName().toLowerCase(Locale.ROOT)))
+                    .toList();
+            var bytes = new ByteArrayOutputStream();
+            try (var output = new DataOutputStream(bytes)) {
+                output.writeInt(0);
+                writeString(output, method);
+                writeString(output, normalizePath(uri));
+                writeString(output, normalizeBody(requestBody));
+                output.writeInt(statusCode);
+                writeString(output, statusLine);
+                writeString(output, contentType);
+                output.writeInt(recordedHeaders.size());
+                for (var header : recordedHeaders) {
+                    writeString(output, header.getName());
+                    writeString(output, header.getValue());
+                }
+                output.writeInt(body.length);
+                output.write(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot encode HTTP exchange", e);
+            }
+            var record = ByteBuffer.wrap(bytes.toByteArray());
+            record.putInt(0, record.capacity() - Integer.BYTES);
+            write(record);
+        }
+
+        private synchronized void write(ByteBuffer record) {
+            if (closed) {
+                return;
+            }
+            try {
+                if (region.remaining() < record.remaining()) {
+                    map(regionStart + region.position(), record.remaining());
+                }
+                region.put(record);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write HTTP archive", e);
+            }
+        }
+
+        private void map(long position, int minSize) throws IOException {
+            regionStart = position;
+            region = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(SEGMENT_SIZE, minSize));
+        }
+
+        // Файл обрезается по последней записи, незаполненный хвост области на диске не остается
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            region.force();
+            channel.truncate(regionStart + region.position());
+            channel.close();
+        }
+    }
+
+    /**
+     * Воспроизведение архива: обмены всех файлов загружаются в очереди по точному и замаскированному ключу. Обмен
+     * выдается один раз, даже если он стоит в обеих очередях.
+     */
+    static final class Reader {
+        private final Map<String, Queue<Exchange>> exchanges = new HashMap<>();
+        private final Map<String, Queue<Exchange>> maskedExchanges = new HashMap<>();
+
+        Reader(Collection<Path> files) throws IOException {
+            for (var file : files) {
+                load(file);
+            }
+        }
+
+        private void load(Path file) throws IOException {
+            ByteBuffer buffer;
+            try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            readRunInfo(buffer);
+            while (buffer.remaining() >= Integer.BYTES) {
+                var length = buffer.getInt();
+                if (length == 0 || length > buffer.remaining()) {
+                    break;
+                }
+                var exchange = readExchange(buffer.slice(buffer.position(), length));
+                buffer.position(buffer.position() + length);
+                var key = key(exchange.method(), exchange.path(), exchange.requestBody());
+                exchanges.computeIfAbsent(key, ignored -> new ConcurrentLinkedQueue<>()).add(exchange);
+                maskedExchanges.computeIfAbsent(maskedKey(key), ignored -> new ConcurrentLinkedQueue<>()).add(exchange);
+            }
+        }
+
+        int size() {
+            return exchanges.values().stream().mapToInt(Queue::size).sum();
+        }
+
+        // null - такой запрос не записывался или все его ответы уже выданы
+        Exchange take(String method, String uri, Object requestBody) {
+            var key = key(method, normalizePath(uri), normalizeBody(requestBody));
+            var exchange = poll(exchanges.get(key));
+            return exchange != null ? exchange : poll(maskedExchanges.get(maskedKey(key)));
+        }
+
+        private static Exchange poll(Queue<Exchange> queue) {
+            if (queue == null) {
+                return null;
+            }
+            for (var exchange = queue.poll(); exchange != null; exchange = queue.poll()) {
+                if (exchange.taken().compareAndSet(false, true)) {
+                    return exchange;
+                }
+            }
+            return null;
+        }
+
+        private static Exchange readExchange(ByteBuffer buffer) {
+            var method = readString(buffer);
+            var path = readString(buffer);
+            var requestBody = readString(buffer);
+            var statusCode = buffer.getInt();
+            var statusLine = readString(buffer);
+            var contentType = readString(buffer);
+            var headerCount = buffer.getInt();
+            var headers = new ArrayList<Header>(headerCount);
+            for (var i = 0; i < headerCount; i++) {
+                headers.add(new Header(readString(buffer), readString(buffer)));
+            }
+            var body = buffer.slice(buffer.position() + Integer.BYTES, buffer.getInt(buffer.position()));
+            return new Exchange(method, path, requestBody, statusCode, statusLine, contentType, List.copyOf(headers),
+                    body, new AtomicBoolean());
+        }
+    }
+
+    record Exchange(String method, String path, String requestBody, int statusCode, String statusLine,
+                    String contentType, List<Header> headers, ByteBuffer body,
+                    AtomicBoolean taken) {
+
+        byte[] bodyBytes() {
+            var bytes = new byte[body.remaining()];
+            body.duplicate().get(bytes);
+            return bytes;
+        }
+    }
+}
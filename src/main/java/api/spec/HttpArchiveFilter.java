@@ -0,0 +1,103 @@
+package api.spec;
+
+import api.data.RandomData;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Пишет обмены в {@link HttpArchive} (httpArchiveMode=record) или отвечает из архива без обращения к серверу
+ * (httpArchiveMode=replay). Фильтр стоит после ExchangeLogFilter, поэтому воспроизведенные обмены попадают в лог
+ * теста, но до MetricsFilter, маршрутизации по узлам и авторизации: при воспроизведении метрики задержек не пишутся
+ * (записанные задержки сервера не смешиваются с чтением из архива), а узлы и сессии не нужны.
+ * Архив один на JVM и открывается при первом обращении.
+ * <p>
+ * Воспроизведенный ответ собирается публичным ResponseBuilder и читается стандартным Jackson-маппером RestAssured,
+ * а не ModelMapper: модели сами разрешают неизвестные поля (@JsonIgnoreProperties), поэтому результат тот же.
+ */
+public class HttpArchiveFilter implements Filter {
+    private final HttpArchive.Writer writer;
+    private final HttpArchive.Reader reader;
+
+    private HttpArchiveFilter(HttpArchive.Writer writer, HttpArchive.Reader reader) {
+        this.writer = writer;
+        this.reader = reader;
+    }
+
+    private static final class Holder {
+        private static final HttpArchiveFilter FILTER = create();
+    }
+
+    public static HttpArchiveFilter global() {
+        return Holder.FILTER;
+    }
+
+    private static HttpArchiveFilter create() {
+        if (HttpArchive.mode() == HttpArchive.Mode.REPLAY) {
+            var files = HttpArchive.replayFiles();
+            if (files.isEmpty()) {
+                throw new IllegalStateException("No HTTP archive to replay at " + HttpArchive.file());
+            }
+            try {
+                var reader = new HttpArchive.Reader(files);
+                System.out.println("HTTP archive %s: replaying %d exchanges".formatted(files, reader.size()));
+                return new HttpArchiveFilter(null, reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open HTTP archive " + files, e);
+            }
+        }
+        var file = HttpArchive.recordFile(RandomData.getNamespace());
+        try {
+            var writer = new HttpArchive.Writer(file,
+                    new HttpArchive.RunInfo(RandomData.getSeed(), RandomData.getNamespace()));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    System.err.println("Cannot close HTTP archive %s: %s".formatted(file, e));
+                }
+            }));
+            System.out.println("HTTP archive %s: recording".formatted(file));
+            return new HttpArchiveFilter(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open HTTP archive " + file, e);
+        }
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        if (reader != null) {
+            return replay(requestSpec);
+        }
+        var response = ctx.next(requestSpec, responseSpec);
+        writer.append(requestSpec.getMethod(), requestSpec.getURI(), requestSpec.getBody(), response);
+        return response;
+    }
+
+    private Response replay(FilterableRequestSpecification requestSpec) {
+        var exchange = reader.take(requestSpec.getMethod(), requestSpec.getURI(), requestSpec.getBody());
+        if (exchange == null) {
+            throw new IllegalStateException("HTTP archive has no recorded response for %s %s"
+                    .formatted(requestSpec.getMethod(), HttpArchive.normalizePath(requestSpec.getURI())));
+        }
+        var builder = new ResponseBuilder()
+                .setStatusCode(exchange.statusCode())
+                .setHeaders(new Headers(exchange.headers()))
+                .setBody(exchange.bodyBytes());
+        if (!exchange.statusLine().isEmpty()) {
+            builder.setStatusLine(exchange.statusLine());
+        }
+        if (!exchange.contentType().isEmpty()) {
+            builder.setContentType(exchange.contentType());
+        }
+        return builder.build();
+    }
+}
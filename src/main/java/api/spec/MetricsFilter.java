@@ -0,0 +1,35 @@
+package api.spec;
+
+import api.enums.Endpoint;
+import api.metrics.RequestMetrics;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * Замеряет время каждого запроса и пишет его в {@link RequestMetrics} по Endpoint, методу и статусу.
+ */
+public class MetricsFilter implements Filter {
+    private final RequestMetrics metrics;
+
+    public MetricsFilter(RequestMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        var start = System.nanoTime();
+        var statusCode = -1;
+        try {
+            var response = ctx.next(requestSpec, responseSpec);
+            statusCode = response.getStatusCode();
+            return response;
+        } finally {
+            metrics.record(Endpoint.fromPath(requestSpec.getURI()), requestSpec.getMethod(), statusCode,
+                    System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package api.spec;
+
+import api.config.Config;
+import api.enums.Endpoint;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import io.restassured.mapper.ObjectMapperDeserializationContext;
+import io.restassured.mapper.ObjectMapperSerializationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+
+/**
+ * Сериализация моделей для RestAssured через общий Jackson ObjectMapper.
+ * <p>
+ * ObjectReader и ObjectWriter для моделей всех Endpoint создаются заранее, для остальных классов - при первом
+ * обращении и кэшируются. Тело запроса сериализуется сразу в байты, без промежуточной строки. Модуль Blackbird
+ * (генерация аксессоров через LambdaMetafactory вместо рефлексии) включается настройкой jacksonBlackbird.
+ */
+public final class ModelMapper implements io.restassured.mapper.ObjectMapper {
+    private static final ObjectMapper OBJECT_MAPPER = createObjectMapper();
+    private static final EnumMap<Endpoint, ObjectReader> ENDPOINT_READERS = new EnumMap<>(Endpoint.class);
+    private static final EnumMap<Endpoint, ObjectWriter> ENDPOINT_WRITERS = new EnumMap<>(Endpoint.class);
+    private static final ClassValue<ObjectReader> READERS = new ClassValue<>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> type) {
+            return OBJECT_MAPPER.readerFor(type);
+        }
+    };
+    private static final ClassValue<ObjectWriter> WRITERS = new ClassValue<>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return OBJECT_MAPPER.writerFor(type);
+        }
+    };
+
+    static {
+        for (var endpoint : Endpoint.values()) {
+            ENDPOINT_READERS.put(endpoint, READERS.get(endpoint.getModelClass()));
+            ENDPOINT_WRITERS.put(endpoint, WRITERS.get(endpoint.getModelClass()));
+        }
+    }
+
+    public static ObjectMapper objectMapper() {
+        return OBJECT_MAPPER;
+    }
+
+    public static ObjectReader reader(Endpoint endpoint) {
+        return ENDPOINT_READERS.get(endpoint);
+    }
+
+    public static ObjectWriter writer(Endpoint endpoint) {
+        return ENDPOINT_WRITERS.get(endpoint);
+    }
+
+    @Override
+    public Object serialize(ObjectMapperSerializationContext context) {
+        var object = context.getObjectToSerialize();
+        try {
+            return WRITERS.get(object.getClass()).writeValueAsBytes(object);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot serialize " + object.getClass().getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(ObjectMapperDeserializationContext context) {
+        var reader = context.getType() instanceof Class<?> type
+                ? READERS.get(type)
+                : OBJECT_MAPPER.readerFor(OBJECT_MAPPER.constructType(context.getType()));
+        try {
+            return reader.readValue(context.getDataToDeserialize().asByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot deserialize " + context.getType().getTypeName(), e);
+        }
+    }
+
+    private static ObjectMapper createObjectMapper() {
+        var objectMapper = new ObjectMapper()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        if (!"false".equalsIgnoreCase(Config.getProperty("jacksonBlackbird"))) {
+            objectMapper.registerModule(new BlackbirdModule());
+        }
+        return objectMapper;
+    }
+}
@@ -0,0 +1,219 @@
+package api.spec;
+
+import api.config.Config;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Маршрутизация запросов по узлам TeamCity.
+ * <p>
+ * Основной узел - host из конфига, дополнительные узлы для чтения задаются списком nodes. Запись всегда уходит
+ * на основной узел, чтение распределяется между основным и исправными дополнительными узлами по политике
+ * nodeRoutingPolicy: roundRobin (по кругу) или leastLoaded (узел с наименьшим числом запросов в работе).
+ * Дополнительные узлы периодически проверяются запросом nodeHealthCheckPath, узел с ошибкой соединения или
+ * ответом 5xx выводится из ротации до следующей успешной проверки. Если nodes не задан, маршрутизация выключена.
+ * <p>
+ * Дополнительные узлы отстают от основного, поэтому поток, который только что записал данные, в течение
+ * nodeReadAfterWriteMillis после записи читает с основного узла и видит свою запись (read-your-writes). Окно ведется
+ * по потоку: тест пишет и читает в своем потоке, а чтение других тестов продолжает распределяться по узлам.
+ */
+public final class NodeRouter {
+    private static final int DEFAULT_HEALTH_CHECK_INTERVAL_SECONDS = 10;
+    private static final int HEALTH_CHECK_TIMEOUT_MILLIS = 2000;
+    private static final String DEFAULT_HEALTH_CHECK_PATH = "/healthCheck/ready";
+    private static final int DEFAULT_READ_AFTER_WRITE_MILLIS = 5000;
+
+    private final Node main = new Node(null);
+    private final List<Node> secondaries;
+    private final List<Node> readNodes;
+    private final Policy policy;
+    private final String healthCheckPath;
+    private final AtomicInteger nextReadNode = new AtomicInteger();
+    private final long readAfterWriteNanos;
+    // Момент последней записи потока по System.nanoTime(), null - поток еще не писал
+    private final ThreadLocal<Long> lastWriteNanos = new ThreadLocal<>();
+
+    NodeRouter(List<String> secondaryHosts, Policy policy, String healthCheckPath, long readAfterWriteMillis) {
+        this.secondaries = secondaryHosts.stream().map(Node::new).toList();
+        var nodes = new ArrayList<Node>();
+        nodes.add(main);
+        nodes.addAll(secondaries);
+        this.readNodes = List.copyOf(nodes);
+        this.policy = policy;
+        this.healthCheckPath = healthCheckPath;
+        this.readAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(readAfterWriteMillis);
+    }
+
+    // Ленивая инициализация через holder-класс, проверки узлов запускаются при первом обращении
+    private static final class Holder {
+        private static final NodeRouter ROUTER = fromConfig();
+    }
+
+    public static NodeRouter global() {
+        return Holder.ROUTER;
+    }
+
+    private static NodeRouter fromConfig() {
+        var nodes = Config.getProperty("nodes");
+        var hosts = nodes == null || nodes.isBlank() ? List.<String>of() : Arrays.stream(nodes.split(","))
+                .map(String::trim)
+                .filter(host -> !host.isEmpty())
+                .toList();
+        var policyName = Config.getProperty("nodeRoutingPolicy");
+        var policy = "leastLoaded".equalsIgnoreCase(policyName) ? Policy.LEAST_LOADED : Policy.ROUND_ROBIN;
+        var healthCheckPath = Config.getProperty("nodeHealthCheckPath");
+        var router = new NodeRouter(hosts, policy,
+                healthCheckPath == null || healthCheckPath.isBlank() ? DEFAULT_HEALTH_CHECK_PATH : healthCheckPath,
+                Config.getIntProperty("nodeReadAfterWriteMillis", DEFAULT_READ_AFTER_WRITE_MILLIS));
+        if (router.isEnabled()) {
+            router.startHealthChecks(Config.getIntProperty("nodeHealthCheckIntervalSeconds",
+                    DEFAULT_HEALTH_CHECK_INTERVAL_SECONDS));
+        }
+        return router;
+    }
+
+    public boolean isEnabled() {
+        return !secondaries.isEmpty();
+    }
+
+    Node main() {
+        return main;
+    }
+
+    List<Node> secondaries() {
+        return secondaries;
+    }
+
+    Node pickRead() {
+        var lastWrite = lastWriteNanos.get();
+        if (lastWrite != null && System.nanoTime() - lastWrite < readAfterWriteNanos) {
+            return main;
+        }
+        var healthy = readNodes.stream().filter(Node::isHealthy).toList();
+        if (healthy.size() <= 1) {
+            return main;
+        }
+        return switch (policy) {
+            case ROUND_ROBIN -> healthy.get(Math.floorMod(nextReadNode.getAndIncrement(), healthy.size()));
+            case LEAST_LOADED -> healthy.stream().min(Comparator.comparingInt(Node::getInFlight)).orElse(main);
+        };
+    }
+
+    // Запись текущего потока завершена: его чтение на время окна уходит на основной узел
+    void recordWrite() {
+        lastWriteNanos.set(System.nanoTime());
+    }
+
+    /**
+     * Выполняет чтение и при отказе дополнительного узла повторяет его один раз: отказавший узел к этому моменту
+     * выведен из ротации, поэтому повтор уйдет на другой узел.
+     */
+    public <R> R withFailover(Supplier<R> read) {
+        try {
+            return read.get();
+        } catch (RuntimeException e) {
+            if (!isEnabled() || !isNodeFailure(e)) {
+                throw e;
+            }
+            return read.get();
+        }
+    }
+
+    private static boolean isNodeFailure(Throwable e) {
+        for (var cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof NodeUnavailableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void startHealthChecks(int intervalSeconds) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "node-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> secondaries.forEach(this::checkHealth),
+                intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // Любой ответ ниже 500 (в том числе 401) означает, что узел отвечает
+    private void checkHealth(Node node) {
+        try {
+            var connection = (HttpURLConnection) URI.create("http://" + node.getHost() + healthCheckPath)
+                    .toURL().openConnection();
+            connection.setConnectTimeout(HEALTH_CHECK_TIMEOUT_MILLIS);
+            connection.setReadTimeout(HEALTH_CHECK_TIMEOUT_MILLIS);
+            try {
+                node.setHealthy(connection.getResponseCode() < 500);
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException | RuntimeException e) {
+            node.setHealthy(false);
+        }
+    }
+
+    enum Policy {
+        ROUND_ROBIN,
+        LEAST_LOADED
+    }
+
+    static final class Node {
+        // null у основного узла: запрос остается на host своей спецификации
+        private final String host;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile boolean healthy = true;
+
+        Node(String host) {
+            this.host = host;
+        }
+
+        String getHost() {
+            return host;
+        }
+
+        boolean isMain() {
+            return host == null;
+        }
+
+        boolean isHealthy() {
+            return healthy;
+        }
+
+        void setHealthy(boolean healthy) {
+            // Основной узел из ротации не выводится: запись все равно идет на него
+            this.healthy = healthy || isMain();
+        }
+
+        int getInFlight() {
+            return inFlight.get();
+        }
+
+        void begin() {
+            inFlight.incrementAndGet();
+        }
+
+        void end() {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    static final class NodeUnavailableException extends RuntimeException {
+        NodeUnavailableException(String host, Throwable cause) {
+            super("TeamCity node %s is unavailable".formatted(host), cause);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package api.spec;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.apache.http.HttpStatus;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Set;
+
+/**
+ * Направляет чтение на узел, выбранный {@link NodeRouter}, запись оставляет на основном узле. Логин и пароль
+ * в базовом URI сохраняются, а сессии SessionAuthFilter хранит по базовому URI, поэтому на каждом узле своя сессия.
+ * Ошибка соединения или ответ 502-504 дополнительного узла выводит его из ротации. После записи чтение потока
+ * на время окна остается на основном узле ({@link NodeRouter}).
+ */
+public class NodeRoutingFilter implements Filter {
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD");
+
+    private final NodeRouter router;
+
+    public NodeRoutingFilter(NodeRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        var read = READ_METHODS.contains(requestSpec.getMethod());
+        var node = read ? router.pickRead() : router.main();
+        if (!node.isMain()) {
+            requestSpec.baseUri(withHost(requestSpec.getBaseUri(), node.getHost()));
+        }
+        node.begin();
+        try {
+            var response = ctx.next(requestSpec, responseSpec);
+            var status = response.getStatusCode();
+            if (!node.isMain() && status >= HttpStatus.SC_BAD_GATEWAY && status <= HttpStatus.SC_GATEWAY_TIMEOUT) {
+                node.setHealthy(false);
+                throw new NodeRouter.NodeUnavailableException(node.getHost(), null);
+            }
+            return response;
+        } catch (RuntimeException e) {
+            if (node.isMain() || !isConnectionFailure(e)) {
+                throw e;
+            }
+            node.setHealthy(false);
+            throw new NodeRouter.NodeUnavailableException(node.getHost(), e);
+        } finally {
+            node.end();
+            // Окно отсчитывается от завершения записи: до этого момента узлы могли ее еще не получить
+            if (!read) {
+                router.recordWrite();
+            }
+        }
+    }
+
+    private static boolean isConnectionFailure(Throwable e) {
+        for (var cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String withHost(String baseUri, String host) {
+        var uri = URI.create(baseUri);
+        var userInfo = uri.getRawUserInfo();
+        return "%s://%s%s%s".formatted(uri.getScheme(), userInfo != null ? userInfo + "@" : "", host,
+                uri.getRawPath() != null ? uri.getRawPath() : "");
+    }
+}
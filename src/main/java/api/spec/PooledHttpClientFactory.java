@@ -0,0 +1,73 @@
+package api.spec;
+
+import api.config.Config;
+import io.restassured.config.HttpClientConfig;
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фабрика HTTP-клиентов для RestAssured с общим пулом keep-alive соединений.
+ * <p>
+ * RestAssured создает клиент на каждый запрос и после запроса закрывает его менеджер соединений. Здесь каждый
+ * клиент легковесный и работает поверх одного общего пула, закрытие которого игнорируется, поэтому соединения
+ * переиспользуются между запросами и потоками. Размер пула задается maxConnectionsPerRoute и maxConnectionsTotal.
+ */
+@SuppressWarnings("deprecation")
+public final class PooledHttpClientFactory implements HttpClientConfig.HttpClientFactory {
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    private static final int DEFAULT_MAX_CONNECTIONS_TOTAL = 100;
+    private static final ClientConnectionManager CONNECTION_MANAGER = new SharedConnectionManager(createPool());
+
+    @Override
+    public HttpClient createHttpClient() {
+        return new DefaultHttpClient(CONNECTION_MANAGER);
+    }
+
+    private static PoolingClientConnectionManager createPool() {
+        var pool = new PoolingClientConnectionManager();
+        pool.setDefaultMaxPerRoute(Config.getIntProperty("maxConnectionsPerRoute", DEFAULT_MAX_CONNECTIONS_PER_ROUTE));
+        pool.setMaxTotal(Config.getIntProperty("maxConnectionsTotal", DEFAULT_MAX_CONNECTIONS_TOTAL));
+        return pool;
+    }
+
+    private record SharedConnectionManager(ClientConnectionManager delegate) implements ClientConnectionManager {
+
+        @Override
+        public SchemeRegistry getSchemeRegistry() {
+            return delegate.getSchemeRegistry();
+        }
+
+        @Override
+        public ClientConnectionRequest requestConnection(HttpRoute route, Object state) {
+            return delegate.requestConnection(route, state);
+        }
+
+        @Override
+        public void releaseConnection(ManagedClientConnection connection, long validDuration, TimeUnit timeUnit) {
+            delegate.releaseConnection(connection, validDuration, timeUnit);
+        }
+
+        @Override
+        public void closeIdleConnections(long idleTime, TimeUnit timeUnit) {
+            delegate.closeIdleConnections(idleTime, timeUnit);
+        }
+
+        @Override
+        public void closeExpiredConnections() {
+            delegate.closeExpiredConnections();
+        }
+
+        @Override
+        public void shutdown() {
+            // Пул общий для всех клиентов, поэтому RestAssured не должен закрывать его после запроса
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package api.spec;
+
+import io.restassured.RestAssured;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.apache.http.HttpStatus;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Авторизация через сессию TeamCity вместо basic auth в каждом запросе.
+ * <p>
+ * Для пользователя один раз выполняется вход по логину и паролю (/authenticationTest.html?csrf), после чего все
+ * запросы идут с cookie сессии и CSRF-токеном. Сессия хранится отдельно для каждого базового URI и обновляется,
+ * если не использовалась дольше sessionTtlSeconds или сервер ответил 401: тогда выполняется повторный вход
+ * и запрос повторяется один раз. Вход на разные URI идет параллельно, на один URI - одним потоком, остальные
+ * ждут его сессию. Если войти не удалось, вместо ответа на запрос возвращается ответ на вход.
+ * <p>
+ * Фильтр добавляется в спецификацию последним, поэтому повторный ctx.next только заново отправляет запрос.
+ */
+public class SessionAuthFilter implements Filter {
+    private static final String SESSION_COOKIE = "TCSESSIONID";
+    private static final String CSRF_HEADER = "X-TC-CSRF-Token";
+    private static final String LOGIN_PATH = "/authenticationTest.html?csrf";
+
+    private final String username;
+    private final String password;
+    private final long ttlNanos;
+    private final RestAssuredConfig config;
+    private final Map<String, SessionSlot> slots = new ConcurrentHashMap<>();
+
+    public SessionAuthFilter(String username, String password, long ttlSeconds, RestAssuredConfig config) {
+        this.username = username;
+        this.password = password;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.config = config;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        var slot = slots.computeIfAbsent(requestSpec.getBaseUri(), SessionSlot::new);
+        var login = slot.login(null);
+        if (login.session() == null) {
+            return login.failure();
+        }
+        var response = send(login.session(), requestSpec, responseSpec, ctx);
+        if (response.getStatusCode() != HttpStatus.SC_UNAUTHORIZED) {
+            return response;
+        }
+        // Сессию могли завершить на сервере: входим заново и повторяем запрос один раз
+        login = slot.login(login.session());
+        if (login.session() == null) {
+            return login.failure();
+        }
+        return send(login.session(), requestSpec, responseSpec, ctx);
+    }
+
+    private static Response send(Session session, FilterableRequestSpecification requestSpec,
+                                 FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        requestSpec.replaceCookie(SESSION_COOKIE, session.cookie());
+        requestSpec.replaceHeader(CSRF_HEADER, session.csrfToken());
+        var response = ctx.next(requestSpec, responseSpec);
+        if (response.getStatusCode() != HttpStatus.SC_UNAUTHORIZED) {
+            session.touch();
+        }
+        return response;
+    }
+
+    // Результат входа: сессия или, если войти не удалось, ответ сервера на вход
+    private record Login(Session session, Response failure) {
+    }
+
+    /**
+     * Сессия одного базового URI. Вход выполняется под блокировкой слота, поэтому параллельные запросы
+     * к одному URI ждут одного входа, а запросы к другим URI не блокируются.
+     */
+    private final class SessionSlot {
+        private final String baseUri;
+        private final Lock lock = new ReentrantLock();
+        private volatile Session session;
+
+        private SessionSlot(String baseUri) {
+            this.baseUri = baseUri;
+        }
+
+        // Действующая сессия или новый вход; rejected - сессия, на которую сервер ответил 401
+        Login login(Session rejected) {
+            var current = session;
+            if (isUsable(current, rejected)) {
+                return new Login(current, null);
+            }
+            lock.lock();
+            try {
+                current = session;
+                if (isUsable(current, rejected)) {
+                    return new Login(current, null);
+                }
+                var response = RestAssured
+                        .given()
+                        .config(config)
+                        .baseUri(baseUri)
+                        .auth().preemptive().basic(username, password)
+                        .get(LOGIN_PATH);
+                var cookie = response.getCookie(SESSION_COOKIE);
+                if (response.getStatusCode() != HttpStatus.SC_OK || cookie == null) {
+                    System.err.println("Cannot log in to %s as '%s': HTTP %d"
+                            .formatted(baseUri, username, response.getStatusCode()));
+                    session = null;
+                    return new Login(null, response);
+                }
+                session = new Session(cookie, response.asString().trim());
+                return new Login(session, null);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean isUsable(Session current, Session rejected) {
+            return current != null && current != rejected && !current.isExpired(ttlNanos);
+        }
+    }
+
+    private static final class Session {
+        private final String cookie;
+        private final String csrfToken;
+        private volatile long lastUsedNanos = System.nanoTime();
+
+        private Session(String cookie, String csrfToken) {
+            this.cookie = cookie;
+            this.csrfToken = csrfToken;
+        }
+
+        String cookie() {
+            return cookie;
+        }
+
+        String csrfToken() {
+            return csrfToken;
+        }
+
+        void touch() {
+            lastUsedNanos = System.nanoTime();
+        }
+
+        boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - lastUsedNanos > ttlNanos;
+        }
+    }
+}
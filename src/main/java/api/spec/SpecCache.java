@@ -0,0 +1,41 @@
+package api.spec;
+
+import io.restassured.specification.RequestSpecification;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Кэш собранных спецификаций по пользователю и хосту (LRU на maxSize записей). Пароль в ключ не входит: при смене
+ * пароля запись пересобирается, поэтому старый пароль не остается в кэше рядом с новым.
+ */
+final class SpecCache {
+    private final LinkedHashMap<String, Entry> entries;
+
+    SpecCache(int maxSize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    synchronized RequestSpecification get(String key, String password, Supplier<RequestSpecification> factory) {
+        var cached = entries.get(key);
+        if (cached == null || !Objects.equals(cached.password(), password)) {
+            cached = new Entry(password, factory.get());
+            entries.put(key, cached);
+        }
+        return cached.spec();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry(String password, RequestSpecification spec) {
+    }
+}
@@ -1,38 +1,99 @@
 package api.spec;
 
 import api.config.Config;
+import api.metrics.RequestMetrics;
 import api.models.User;
 import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.ObjectMapperConfig;
+import io.restassured.config.RestAssuredConfig;
 import io.restassured.filter.log.RequestLoggingFilter;
 import io.restassured.filter.log.ResponseLoggingFilter;
 import io.restassured.http.ContentType;
 import io.restassured.specification.RequestSpecification;
 
+import java.util.function.Supplier;
+
 public class Specifications {
+    private static final int DEFAULT_SESSION_TTL_SECONDS = 1500;
+    private static final int DEFAULT_SPEC_CACHE_SIZE = 256;
+    // Спецификации неизменяемы после сборки, поэтому кэшируются по пользователю и хосту
+    private static final SpecCache SPECS = new SpecCache(Config.getIntProperty("specCacheSize",
+            DEFAULT_SPEC_CACHE_SIZE));
+    private static final RestAssuredConfig REST_ASSURED_CONFIG = RestAssuredConfig.config()
+            .httpClient(HttpClientConfig.httpClientConfig().httpClientFactory(new PooledHttpClientFactory()))
+            .objectMapperConfig(ObjectMapperConfig.objectMapperConfig().defaultObjectMapper(new ModelMapper()));
+
     private static RequestSpecBuilder reqBuilder() {
         var requestBuilder = new RequestSpecBuilder();
-        requestBuilder.addFilter(new RequestLoggingFilter());
-        requestBuilder.addFilter(new ResponseLoggingFilter());
+        requestBuilder.setConfig(REST_ASSURED_CONFIG);
+        // По умолчанию обмены пишутся в буфер теста и выводятся только при падении, logAllExchanges=true
+        // возвращает вывод каждого запроса и ответа в консоль
+        requestBuilder.addFilter(new ExchangeLogFilter());
+        // Запись или воспроизведение обменов: при воспроизведении следующие фильтры и сервер не вызываются
+        if (HttpArchive.mode() != HttpArchive.Mode.OFF) {
+            requestBuilder.addFilter(HttpArchiveFilter.global());
+        }
+        // После архива: воспроизведенные ответы не попадают в метрики как задержки сервера
+        requestBuilder.addFilter(new MetricsFilter(RequestMetrics.global()));
+        // Узлы для чтения из nodes: маршрутизация должна идти до авторизации, чтобы сессия бралась для нужного узла
+        if (NodeRouter.global().isEnabled()) {
+            requestBuilder.addFilter(new NodeRoutingFilter(NodeRouter.global()));
+        }
+        if (Boolean.parseBoolean(Config.getProperty("logAllExchanges"))) {
+            requestBuilder.addFilter(new RequestLoggingFilter());
+            requestBuilder.addFilter(new ResponseLoggingFilter());
+        }
         requestBuilder.setContentType(ContentType.JSON);
         requestBuilder.setAccept(ContentType.JSON);
         return requestBuilder;
     }
 
     public static RequestSpecification superUserSpec() {
-        var requestBuilder = reqBuilder();
-        requestBuilder.setBaseUri("http://%s:%s@%s/httpAuth".formatted("", Config.getProperty("superUserToken"), Config.getProperty("host")));
-        return requestBuilder.build();
+        var host = Config.getProperty("host");
+        var token = Config.getProperty("superUserToken");
+        return cached("superUser@" + host, token, () -> {
+            var requestBuilder = reqBuilder();
+            if (isSessionAuth()) {
+                requestBuilder.setBaseUri("http://%s".formatted(host));
+                requestBuilder.addFilter(sessionAuthFilter("", token));
+            } else {
+                requestBuilder.setBaseUri("http://%s:%s@%s/httpAuth".formatted("", token, host));
+            }
+            return requestBuilder.build();
+        });
     }
 
     public static RequestSpecification unAuthSpec() {
-        var requestBuilder = reqBuilder();
-        return requestBuilder.build();
+        return cached("unAuth", null, () -> reqBuilder().build());
     }
 
     public static RequestSpecification authSpec(User user) {
-        var requestBuilder = reqBuilder();
-        requestBuilder.setBaseUri("http://%s:%s@%s".formatted(user.getUsername(), user.getPassword(), Config.getProperty("host")));
-        return requestBuilder.build();
+        var host = Config.getProperty("host");
+        return cached("%s@%s".formatted(user.getUsername(), host), user.getPassword(), () -> {
+            var requestBuilder = reqBuilder();
+            if (isSessionAuth()) {
+                requestBuilder.setBaseUri("http://%s".formatted(host));
+                requestBuilder.addFilter(sessionAuthFilter(user.getUsername(), user.getPassword()));
+            } else {
+                requestBuilder.setBaseUri("http://%s:%s@%s".formatted(user.getUsername(), user.getPassword(), host));
+            }
+            return requestBuilder.build();
+        });
+    }
+
+    private static RequestSpecification cached(String key, String password, Supplier<RequestSpecification> factory) {
+        return SPECS.get(key, password, factory);
     }
-}
 
+    // authMode=session (по умолчанию): вход один раз на пользователя и дальше cookie сессии; authMode=basic: логин
+    // и пароль в каждом запросе
+    private static boolean isSessionAuth() {
+        return !"basic".equalsIgnoreCase(Config.getProperty("authMode"));
+    }
+
+    private static SessionAuthFilter sessionAuthFilter(String username, String password) {
+        return new SessionAuthFilter(username, password,
+                Config.getIntProperty("sessionTtlSeconds", DEFAULT_SESSION_TTL_SECONDS), REST_ASSURED_CONFIG);
+    }
+}
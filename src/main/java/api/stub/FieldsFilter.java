@@ -0,0 +1,67 @@
+package api.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Частичный ответ по параметру fields, как в TeamCity: "name,parentProject(id),buildTypes(count,buildType(id))".
+ * Звездочка оставляет все поля уровня, массивы фильтруются поэлементно.
+ */
+final class FieldsFilter {
+    private static final String ALL_FIELDS = "*";
+
+    private FieldsFilter() {
+    }
+
+    static JsonNode apply(JsonNode node, String fields) {
+        if (fields == null || fields.isBlank() || ALL_FIELDS.equals(fields.trim())) {
+            return node;
+        }
+        if (node instanceof ArrayNode array) {
+            var filtered = array.arrayNode();
+            array.forEach(item -> filtered.add(apply(item, fields)));
+            return filtered;
+        }
+        if (!(node instanceof ObjectNode object)) {
+            return node;
+        }
+        var filtered = object.objectNode();
+        parse(fields).forEach((name, nested) -> {
+            var value = object.get(name);
+            if (value != null) {
+                filtered.set(name, nested != null ? apply(value, nested) : value);
+            }
+        });
+        return filtered;
+    }
+
+    // Поле верхнего уровня -> выражение для вложенных полей (null, если поле без скобок)
+    private static Map<String, String> parse(String fields) {
+        var result = new LinkedHashMap<String, String>();
+        var depth = 0;
+        var start = 0;
+        for (var i = 0; i <= fields.length(); i++) {
+            var c = i < fields.length() ? fields.charAt(i) : ',';
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                var item = fields.substring(start, i).trim();
+                var bracket = item.indexOf('(');
+                if (bracket < 0) {
+                    result.put(item, null);
+                } else if (item.endsWith(")")) {
+                    result.put(item.substring(0, bracket).trim(), item.substring(bracket + 1, item.length() - 1));
+                }
+                start = i + 1;
+            }
+        }
+        result.remove("");
+        return result;
+    }
+}
@@ -0,0 +1,17 @@
+package api.stub;
+
+/**
+ * Ошибка обработки запроса заглушкой: HTTP-статус и текст, который TeamCity возвращает в теле ответа.
+ */
+class StubException extends RuntimeException {
+    private final int status;
+
+    StubException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    int getStatus() {
+        return status;
+    }
+}
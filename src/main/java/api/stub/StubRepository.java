@@ -0,0 +1,585 @@
+package api.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Данные заглушки TeamCity: проекты, билд-конфигурации, сборки и пользователи с правилами валидации сервера.
+ * <p>
+ * Сущности хранятся в ConcurrentHashMap и читаются без блокировок. Изменения выполняются под одной блокировкой,
+ * потому что проверка уникальности имени, каскадное удаление и копирование проекта затрагивают несколько сущностей.
+ * Сборки не выполняются: состояние сборки вычисляется по времени с момента запуска (QUEUED_MILLIS в очереди,
+ * затем RUNNING_MILLIS в работе, затем успешное завершение).
+ */
+final class StubRepository {
+    static final String ROOT_PROJECT_ID = "_Root";
+    private static final String ROOT_PROJECT_NAME = "<Root project>";
+    private static final String ID_DIMENSION = "id:";
+    private static final String USERNAME_DIMENSION = "username:";
+    private static final long QUEUED_MILLIS = 200;
+    private static final long RUNNING_MILLIS = 300;
+
+    private final ObjectMapper mapper;
+    private final String superUserPassword;
+    private final Map<String, ProjectEntry> projects = new ConcurrentHashMap<>();
+    private final Map<String, BuildTypeEntry> buildTypes = new ConcurrentHashMap<>();
+    private final Map<String, UserEntry> users = new ConcurrentHashMap<>();
+    private final Map<String, BuildEntry> builds = new ConcurrentHashMap<>();
+    private final AtomicLong userIds = new AtomicLong();
+    private final AtomicLong buildIds = new AtomicLong();
+
+    StubRepository(ObjectMapper mapper, String superUserPassword) {
+        this.mapper = mapper;
+        this.superUserPassword = superUserPassword;
+        projects.put(ROOT_PROJECT_ID, new ProjectEntry(ROOT_PROJECT_ID, ROOT_PROJECT_NAME, null));
+    }
+
+    // Супер-пользователь входит с пустым логином и токеном из конфига, null вместо токена пускает любой пароль
+    boolean authenticate(String username, String password) {
+        if (username == null || username.isEmpty()) {
+            return superUserPassword == null || superUserPassword.equals(password);
+        }
+        return users.values().stream()
+                .anyMatch(user -> user.username().equals(username) && Objects.equals(user.password(), password));
+    }
+
+    /* Проекты */
+
+    ObjectNode createProject(JsonNode body) {
+        synchronized (this) {
+            var name = text(body, "name");
+            if (name == null || name.isBlank()) {
+                throw new StubException(HttpStatus.SC_BAD_REQUEST, "Project name cannot be empty.");
+            }
+            var parentId = body.has("parentProject") ? findProject(body.get("parentProject")).id() : ROOT_PROJECT_ID;
+            var source = body.has("sourceProject") ? findProject(body.get("sourceProject")) : null;
+            checkProjectNameIsFree(parentId, name, null);
+            var id = text(body, "id");
+            if (id == null) {
+                id = generateId(name, projects);
+            }
+            checkId("Project ID", id);
+            if (projects.containsKey(id)) {
+                throw new StubException(HttpStatus.SC_BAD_REQUEST,
+                        "Project ID \"%s\" is already used by another project".formatted(id));
+            }
+            projects.put(id, new ProjectEntry(id, name, parentId));
+            if (source != null) {
+                copyBuildTypes(source.id(), id);
+            }
+            return projectJson(projects.get(id));
+        }
+    }
+
+    ObjectNode readProject(String locator) {
+        return projectJson(getProject(locator));
+    }
+
+    ObjectNode updateProject(String locator, JsonNode body) {
+        synchronized (this) {
+            var project = getProject(locator);
+            var name = text(body, "name");
+            if (name != null && !name.equals(project.name())) {
+                if (name.isBlank()) {
+                    throw new StubException(HttpStatus.SC_BAD_REQUEST, "Project name cannot be empty.");
+                }
+                checkProjectNameIsFree(project.parentId(), name, project.id());
+                project = new ProjectEntry(project.id(), name, project.parentId());
+                projects.put(project.id(), project);
+            }
+            return projectJson(project);
+        }
+    }
+
+    // Удаляет проект вместе с подпроектами и их билд-конфигурациями
+    void deleteProject(String locator) {
+        synchronized (this) {
+            var project = getProject(locator);
+            if (ROOT_PROJECT_ID.equals(project.id())) {
+                throw new StubException(HttpStatus.SC_BAD_REQUEST, "Root project cannot be deleted.");
+            }
+            var subtree = new HashSet<String>();
+            subtree.add(project.id());
+            var changed = true;
+            while (changed) {
+                changed = false;
+                for (var candidate : projects.values()) {
+                    if (candidate.parentId() != null && subtree.contains(candidate.parentId())) {
+                        changed |= subtree.add(candidate.id());
+                    }
+                }
+            }
+            buildTypes.values().removeIf(buildType -> subtree.contains(buildType.projectId()));
+            builds.values().removeIf(build -> !buildTypes.containsKey(build.buildTypeId()));
+            projects.keySet().removeAll(subtree);
+        }
+    }
+
+    List<ObjectNode> listProjects() {
+        return projects.values().stream()
+                .sorted(Comparator.comparing(ProjectEntry::id))
+                .map(this::projectReference)
+                .toList();
+    }
+
+    /* Билд-конфигурации */
+
+    ObjectNode createBuildType(JsonNode body) {
+        synchronized (this) {
+            var name = text(body, "name");
+            if (name == null || name.isBlank()) {
+                throw new StubException(HttpStatus.SC_BAD_REQUEST,
+                        "When creating a build type, non empty name should be provided.");
+            }
+            if (!body.hasNonNull("project")) {
+                throw new StubException(HttpStatus.SC_BAD_REQUEST,
+                        "Build type creation request should contain project node.");
+            }
+            var project = findProject(body.get("project"));
+            checkBuildTypeNameIsFree(project, name, null);
+            var id = text(body, "id");
+            if (id == null) {
+                id = generateId(project.id() + "_" + name, buildTypes);
+            }
+            checkId("Build configuration or template ID", id);
+            if (buildTypes.containsKey(id)) {
+                throw new StubException(HttpStatus.SC_BAD_REQUEST,
+                        "The build configuration / template ID \"%s\" is already used by another configuration or template"
+                                .formatted(id));
+            }
+            var buildType = new BuildTypeEntry(id, name, project.id(), body.get("steps"));
+            buildTypes.put(id, buildType);
+            return buildTypeJson(buildType);
+        }
+    }
+
+    ObjectNode readBuildType(String locator) {
+        return buildTypeJson(getBuildType(locator));
+    }
+
+    ObjectNode updateBuildType(String locator, JsonNode body) {
+        synchronized (this) {
+            var buildType = getBuildType(locator);
+            var name = text(body, "name");
+            if (name != null && !name.equals(buildType.name())) {
+                checkBuildTypeNameIsFree(projects.get(buildType.projectId()), name, buildType.id());
+            }
+            buildType = new BuildTypeEntry(buildType.id(), name != null ? name : buildType.name(),
+                    buildType.projectId(), body.has("steps") ? body.get("steps") : buildType.steps());
+            buildTypes.put(buildType.id(), buildType);
+            return buildTypeJson(buildType);
+        }
+    }
+
+    // Удаляет билд-конфигурацию вместе с ее сборками
+    void deleteBuildType(String locator) {
+        synchronized (this) {
+            var id = getBuildType(locator).id();
+            buildTypes.remove(id);
+            builds.values().removeIf(build -> build.buildTypeId().equals(id));
+        }
+    }
+
+    List<ObjectNode> listBuildTypes() {
+        return buildTypes.values().stream()
+                .sorted(Comparator.comparing(BuildTypeEntry::id))
+                .map(this::buildTypeReference)
+                .toList();
+    }
+
+    /* Сборки */
+
+    ObjectNode triggerBuild(JsonNode body) {
+        synchronized (this) {
+            if (!body.hasNonNull("buildType")) {
+                throw new StubException(HttpStatus.SC_BAD_REQUEST, "No 'buildType' element in the posted entity.");
+            }
+            var reference = body.get("buildType");
+            var buildType = getBuildType(reference.hasNonNull("id") ? reference.get("id").asText()
+                    : text(reference, "locator"));
+            var id = String.valueOf(buildIds.incrementAndGet());
+            var build = new BuildEntry(id, buildType.id(), System.nanoTime(), false);
+            builds.put(id, build);
+            return buildJson(build);
+        }
+    }
+
+    ObjectNode readBuild(String locator) {
+        return buildJson(getBuild(locator));
+    }
+
+    // Отмена сборки в очереди: сборка остается в истории завершенной со статусом UNKNOWN
+    void cancelQueuedBuild(String locator) {
+        synchronized (this) {
+            var build = getBuild(locator);
+            if (!"queued".equals(state(build))) {
+                throw buildNotFound(locator);
+            }
+            builds.put(build.id(), new BuildEntry(build.id(), build.buildTypeId(), build.queuedAtNanos(), true));
+        }
+    }
+
+    void deleteBuild(String locator) {
+        synchronized (this) {
+            builds.remove(getBuild(locator).id());
+        }
+    }
+
+    List<ObjectNode> listBuilds() {
+        return builds.values().stream()
+                .sorted(Comparator.comparingLong(build -> Long.parseLong(build.id())))
+                .map(this::buildReference)
+                .toList();
+    }
+
+    List<ObjectNode> listQueuedBuilds() {
+        return builds.values().stream()
+                .filter(build -> "queued".equals(state(build)))
+                .sorted(Comparator.comparingLong(build -> Long.parseLong(build.id())))
+                .map(this::buildReference)
+                .toList();
+    }
+
+    /* Пользователи */
+
+    ObjectNode createUser(JsonNode body) {
+        synchronized (this) {
+            var username = text(body, "username");
+            if (username == null || username.isBlank()) {
+                throw new StubException(HttpStatus.SC_BAD_REQUEST, "Username must not be empty when creating user.");
+            }
+            checkUsernameIsFree(username, null);
+            var id = String.valueOf(userIds.incrementAndGet());
+            var user = new UserEntry(id, username, text(body, "password"), userBody(id, body));
+            users.put(id, user);
+            return userJson(user);
+        }
+    }
+
+    ObjectNode readUser(String locator) {
+        return userJson(getUser(locator));
+    }
+
+    ObjectNode updateUser(String locator, JsonNode body) {
+        synchronized (this) {
+            var user = getUser(locator);
+            var username = text(body, "username");
+            if (username != null && !username.equals(user.username())) {
+                checkUsernameIsFree(username, user.id());
+            }
+            var password = text(body, "password");
+            user = new UserEntry(user.id(), username != null ? username : user.username(),
+                    password != null ? password : user.password(), userBody(user.id(), body));
+            users.put(user.id(), user);
+            return userJson(user);
+        }
+    }
+
+    void deleteUser(String locator) {
+        synchronized (this) {
+            users.remove(getUser(locator).id());
+        }
+    }
+
+    List<ObjectNode> listUsers() {
+        return users.values().stream()
+                .sorted(Comparator.comparingLong(user -> Long.parseLong(user.id())))
+                .map(user -> {
+                    var node = mapper.createObjectNode();
+                    node.put("id", Long.parseLong(user.id()));
+                    node.put("username", user.username());
+                    node.put("href", "/app/rest/users/id:" + user.id());
+                    return node;
+                })
+                .toList();
+    }
+
+    /* Поиск и проверки */
+
+    // Узел parentProject, sourceProject или project: ссылка по локатору или по id
+    private ProjectEntry findProject(JsonNode reference) {
+        var id = reference.hasNonNull("id") ? reference.get("id").asText() : idFromLocator(text(reference, "locator"));
+        var project = id != null ? projects.get(id) : null;
+        if (project == null) {
+            throw projectNotFound(id);
+        }
+        return project;
+    }
+
+    private ProjectEntry getProject(String locator) {
+        var id = idFromLocator(locator);
+        var project = projects.get(id);
+        if (project == null) {
+            throw projectNotFound(id);
+        }
+        return project;
+    }
+
+    private BuildTypeEntry getBuildType(String locator) {
+        var id = idFromLocator(locator);
+        var buildType = buildTypes.get(id);
+        if (buildType == null) {
+            throw new StubException(HttpStatus.SC_NOT_FOUND, "No build type nor template is found by id '%s'."
+                    .formatted(id));
+        }
+        return buildType;
+    }
+
+    private BuildEntry getBuild(String locator) {
+        var id = idFromLocator(locator);
+        var build = id != null ? builds.get(id) : null;
+        if (build == null) {
+            throw buildNotFound(locator);
+        }
+        return build;
+    }
+
+    private static StubException buildNotFound(String locator) {
+        return new StubException(HttpStatus.SC_NOT_FOUND, "Nothing is found by locator '%s'.".formatted(locator));
+    }
+
+    private UserEntry getUser(String locator) {
+        var user = locator.startsWith(USERNAME_DIMENSION)
+                ? users.values().stream()
+                .filter(candidate -> candidate.username().equals(locator.substring(USERNAME_DIMENSION.length())))
+                .findFirst().orElse(null)
+                : users.get(idFromLocator(locator));
+        if (user == null) {
+            throw new StubException(HttpStatus.SC_NOT_FOUND, "User not found");
+        }
+        return user;
+    }
+
+    private static StubException projectNotFound(String id) {
+        return new StubException(HttpStatus.SC_NOT_FOUND, "Project cannot be found by external id '%s'".formatted(id));
+    }
+
+    private void checkProjectNameIsFree(String parentId, String name, String exceptId) {
+        for (var project : projects.values()) {
+            if (Objects.equals(project.parentId(), parentId) && project.name().equals(name)
+                    && !project.id().equals(exceptId)) {
+                throw new StubException(HttpStatus.SC_BAD_REQUEST,
+                        "Project with this name already exists: %s".formatted(name));
+            }
+        }
+    }
+
+    private void checkBuildTypeNameIsFree(ProjectEntry project, String name, String exceptId) {
+        for (var buildType : buildTypes.values()) {
+            if (buildType.projectId().equals(project.id()) && buildType.name().equals(name)
+                    && !buildType.id().equals(exceptId)) {
+                throw new StubException(HttpStatus.SC_BAD_REQUEST,
+                        "Build configuration with name \"%s\" already exists in project: \"%s\""
+                                .formatted(name, project.name()));
+            }
+        }
+    }
+
+    private void checkUsernameIsFree(String username, String exceptId) {
+        for (var user : users.values()) {
+            if (user.username().equals(username) && !user.id().equals(exceptId)) {
+                throw new StubException(HttpStatus.SC_BAD_REQUEST, "Duplicate user account name");
+            }
+        }
+    }
+
+    // Правила внешних id TeamCity: начинается с латинской буквы, дальше латинские буквы, цифры и подчеркивание
+    private static void checkId(String kind, String id) {
+        if (id.isEmpty()) {
+            throw new StubException(HttpStatus.SC_INTERNAL_SERVER_ERROR, "%s must not be empty.".formatted(kind));
+        }
+        if (!isLatinLetter(id.charAt(0))) {
+            throw new StubException(HttpStatus.SC_INTERNAL_SERVER_ERROR,
+                    "%s \"%s\" is invalid: starts with non-letter character '%s'.".formatted(kind, id, id.charAt(0)));
+        }
+        for (var i = 1; i < id.length(); i++) {
+            var c = id.charAt(i);
+            if (!isLatinLetter(c) && !(c >= '0' && c <= '9') && c != '_') {
+                throw new StubException(HttpStatus.SC_INTERNAL_SERVER_ERROR,
+                        "%s \"%s\" is invalid: contains unsupported character '%s'.".formatted(kind, id, c));
+            }
+        }
+    }
+
+    private static boolean isLatinLetter(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+    }
+
+    // Id из имени, как это делает TeamCity: недопустимые символы выбрасываются, при совпадении добавляется номер
+    private static String generateId(String name, Map<String, ?> existing) {
+        var builder = new StringBuilder();
+        for (var c : name.toCharArray()) {
+            if (isLatinLetter(c) || c >= '0' && c <= '9' || c == '_') {
+                builder.append(c);
+            }
+        }
+        if (builder.isEmpty() || !isLatinLetter(builder.charAt(0))) {
+            builder.insert(0, "Id");
+        }
+        var id = builder.toString();
+        for (var suffix = 2; existing.containsKey(id); suffix++) {
+            id = builder + String.valueOf(suffix);
+        }
+        return id;
+    }
+
+    private static String idFromLocator(String locator) {
+        if (locator == null) {
+            return null;
+        }
+        for (var dimension : locator.split(",")) {
+            if (dimension.startsWith(ID_DIMENSION)) {
+                return dimension.substring(ID_DIMENSION.length());
+            }
+        }
+        // Локатор без измерения TeamCity трактует как id
+        return locator.contains(":") ? null : locator;
+    }
+
+    private static String text(JsonNode node, String field) {
+        var value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private void copyBuildTypes(String sourceProjectId, String targetProjectId) {
+        var copies = new ArrayList<BuildTypeEntry>();
+        for (var buildType : buildTypes.values()) {
+            if (buildType.projectId().equals(sourceProjectId)) {
+                var id = generateId(targetProjectId + "_" + buildType.name(), buildTypes);
+                copies.add(new BuildTypeEntry(id, buildType.name(), targetProjectId, buildType.steps()));
+            }
+        }
+        copies.forEach(copy -> buildTypes.put(copy.id(), copy));
+    }
+
+    /* JSON-представления */
+
+    private ObjectNode projectReference(ProjectEntry project) {
+        var node = mapper.createObjectNode();
+        node.put("id", project.id());
+        node.put("name", project.name());
+        if (project.parentId() != null) {
+            node.put("parentProjectId", project.parentId());
+        }
+        node.put("href", "/app/rest/projects/id:" + project.id());
+        return node;
+    }
+
+    private ObjectNode projectJson(ProjectEntry project) {
+        var node = projectReference(project);
+        var parent = project.parentId() != null ? projects.get(project.parentId()) : null;
+        if (parent != null) {
+            node.set("parentProject", projectReference(parent));
+        }
+        var projectBuildTypes = buildTypes.values().stream()
+                .filter(buildType -> buildType.projectId().equals(project.id()))
+                .sorted(Comparator.comparing(BuildTypeEntry::id))
+                .map(this::buildTypeReference)
+                .toList();
+        var buildTypesNode = node.putObject("buildTypes");
+        buildTypesNode.put("count", projectBuildTypes.size());
+        buildTypesNode.putArray("buildType").addAll(projectBuildTypes);
+        return node;
+    }
+
+    private ObjectNode buildTypeReference(BuildTypeEntry buildType) {
+        var node = mapper.createObjectNode();
+        node.put("id", buildType.id());
+        node.put("name", buildType.name());
+        node.put("projectId", buildType.projectId());
+        node.put("href", "/app/rest/buildTypes/id:" + buildType.id());
+        return node;
+    }
+
+    private ObjectNode buildTypeJson(BuildTypeEntry buildType) {
+        var node = buildTypeReference(buildType);
+        var project = projects.get(buildType.projectId());
+        if (project != null) {
+            node.put("projectName", project.name());
+            node.set("project", projectReference(project));
+        }
+        if (buildType.steps() != null) {
+            node.set("steps", buildType.steps().deepCopy());
+        } else {
+            node.putObject("steps").put("count", 0);
+        }
+        return node;
+    }
+
+    private static String state(BuildEntry build) {
+        if (build.canceled()) {
+            return "finished";
+        }
+        var elapsedMillis = (System.nanoTime() - build.queuedAtNanos()) / 1_000_000;
+        return elapsedMillis < QUEUED_MILLIS ? "queued"
+                : elapsedMillis < QUEUED_MILLIS + RUNNING_MILLIS ? "running" : "finished";
+    }
+
+    private ObjectNode buildReference(BuildEntry build) {
+        var node = mapper.createObjectNode();
+        node.put("id", Long.parseLong(build.id()));
+        node.put("buildTypeId", build.buildTypeId());
+        var state = state(build);
+        node.put("state", state);
+        if (build.canceled()) {
+            node.put("status", "UNKNOWN");
+        } else if (!"queued".equals(state)) {
+            node.put("status", "SUCCESS");
+        }
+        node.put("href", "/app/rest/builds/id:" + build.id());
+        return node;
+    }
+
+    private ObjectNode buildJson(BuildEntry build) {
+        var node = buildReference(build);
+        if (build.canceled()) {
+            node.put("statusText", "Canceled");
+            node.putObject("canceledInfo").put("text", "Canceled from the queue");
+        } else if ("finished".equals(node.get("state").asText())) {
+            node.put("statusText", "Success");
+        }
+        var buildType = buildTypes.get(build.buildTypeId());
+        if (buildType != null) {
+            node.set("buildType", buildTypeReference(buildType));
+        }
+        return node;
+    }
+
+    // Тело пользователя хранится как пришло, без пароля: TeamCity его не возвращает
+    private ObjectNode userBody(String id, JsonNode body) {
+        var node = body.isObject() ? ((ObjectNode) body).deepCopy() : mapper.createObjectNode();
+        node.remove("password");
+        node.put("id", Long.parseLong(id));
+        return node;
+    }
+
+    private ObjectNode userJson(UserEntry user) {
+        var node = user.body().deepCopy();
+        node.put("username", user.username());
+        node.put("href", "/app/rest/users/id:" + user.id());
+        return node;
+    }
+
+    private record ProjectEntry(String id, String name, String parentId) {
+    }
+
+    private record BuildTypeEntry(String id, String name, String projectId, JsonNode steps) {
+    }
+
+    private record BuildEntry(String id, String buildTypeId, long queuedAtNanos, boolean canceled) {
+    }
+
+    private record UserEntry(String id, String username, String password, ObjectNode body) {
+    }
+}
@@ -0,0 +1,321 @@
+package api.stub;
+
+import api.config.Config;
+import api.metrics.RunReport;
+import api.requests.RequestExecutors;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Встраиваемая заглушка REST API TeamCity для прогонов без сервера.
+ * <p>
+ * Реализует то, чем пользуется фреймворк: /app/rest/projects, /app/rest/buildTypes, /app/rest/users,
+ * /app/rest/buildQueue и /app/rest/builds с локаторами id: и item:, создание проекта с родителем и копированием
+ * билд-конфигураций из sourceProject, запуск сборок через очередь, каскадное удаление и тексты ошибок TeamCity,
+ * которые проверяет {@link api.spec.ResponseSpecifications}. Вход через /authenticationTest.html?csrf проверяет
+ * логин и пароль и выдает cookie сессии, остальные запросы не авторизуются. Префикс /httpAuth отбрасывается.
+ * Ответы учитывают параметр fields, ответы на GET содержат ETag и поддерживают If-None-Match. Заглушка поднимается
+ * на свободном порту за миллисекунды, данные живут в памяти.
+ * <p>
+ * Настройка useStub=true поднимает одну заглушку на JVM и подменяет host, поэтому тесты, бенчмарки и нагрузочный
+ * прогон идут в нее без изменений кода.
+ */
+public final class TeamCityStub implements AutoCloseable {
+    private static final String HTTP_AUTH_PREFIX = "/httpAuth";
+    private static final String LOGIN_PATH = "/authenticationTest.html";
+    private static final String REST_PREFIX = "/app/rest/";
+    private static final String SESSION_COOKIE = "TCSESSIONID";
+    private static TeamCityStub shared;
+
+    private final HttpServer server;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final StubRepository repository;
+
+    private TeamCityStub(HttpServer server, String superUserPassword) {
+        this.server = server;
+        this.repository = new StubRepository(mapper, superUserPassword);
+    }
+
+    public static TeamCityStub start(String superUserPassword) {
+        try {
+            var server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            var stub = new TeamCityStub(server, superUserPassword);
+            server.createContext("/", stub::handle);
+            server.setExecutor(RequestExecutors.shared());
+            server.start();
+            return stub;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start TeamCity stub", e);
+        }
+    }
+
+    // Поднимает общую заглушку и направляет на нее host, если задано useStub=true
+    public static synchronized void startIfConfigured() {
+        if (shared == null && Boolean.parseBoolean(Config.getProperty("useStub"))) {
+            shared = start(Config.getProperty("superUserToken"));
+            System.setProperty("host", shared.getHost());
+            Runtime.getRuntime().addShutdownHook(new Thread(TeamCityStub::stopShared));
+            RunReport.global().put("stubHost", shared.getHost());
+        }
+    }
+
+    // Поток HttpServer не daemon: программа без System.exit должна остановить заглушку сама
+    public static synchronized void stopShared() {
+        if (shared != null) {
+            shared.close();
+            shared = null;
+        }
+    }
+
+    public String getHost() {
+        return "localhost:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            var path = exchange.getRequestURI().getPath();
+            if (path.startsWith(HTTP_AUTH_PREFIX)) {
+                path = path.substring(HTTP_AUTH_PREFIX.length());
+            }
+            if (path.equals(LOGIN_PATH)) {
+                login(exchange);
+                return;
+            }
+            var method = exchange.getRequestMethod();
+            var body = route(method, path, queryParameter(exchange, "locator"), readBody(exchange));
+            if (body == null) {
+                exchange.sendResponseHeaders(HttpStatus.SC_NO_CONTENT, -1);
+                return;
+            }
+            var bytes = mapper.writeValueAsBytes(FieldsFilter.apply(body, queryParameter(exchange, "fields")));
+            if ("GET".equals(method)) {
+                // ETag от содержимого: повторное чтение неизмененной сущности получает 304 без тела
+                var eTag = "\"%08x%08x\"".formatted(bytes.length, Arrays.hashCode(bytes));
+                exchange.getResponseHeaders().set("ETag", eTag);
+                if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    exchange.sendResponseHeaders(HttpStatus.SC_NOT_MODIFIED, -1);
+                    return;
+                }
+            }
+            send(exchange, HttpStatus.SC_OK, "application/json", bytes);
+        } catch (StubException e) {
+            sendError(exchange, e.getStatus(), e.getMessage());
+        } catch (JsonProcessingException e) {
+            sendError(exchange, HttpStatus.SC_BAD_REQUEST, "Cannot parse request body: " + e.getOriginalMessage());
+        } catch (RuntimeException e) {
+            sendError(exchange, HttpStatus.SC_INTERNAL_SERVER_ERROR, e.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Возвращает тело ответа, null - ответ без тела
+    private JsonNode route(String method, String path, String searchLocator, JsonNode body) {
+        if (!path.startsWith(REST_PREFIX)) {
+            throw new StubException(HttpStatus.SC_NOT_FOUND, "Unknown resource " + path);
+        }
+        var segments = path.substring(REST_PREFIX.length()).split("/", 2);
+        var collection = segments[0];
+        var locator = segments.length > 1 && !segments[1].isEmpty() ? segments[1] : null;
+        return switch (collection) {
+            case "projects" -> locator == null
+                    ? collectionOrCreate(method, "project", searchLocator, repository::listProjects,
+                    () -> repository.createProject(body))
+                    : entity(method, () -> repository.readProject(locator),
+                    () -> repository.updateProject(locator, body), () -> repository.deleteProject(locator));
+            case "buildTypes" -> locator == null
+                    ? collectionOrCreate(method, "buildType", searchLocator, repository::listBuildTypes,
+                    () -> repository.createBuildType(body))
+                    : entity(method, () -> repository.readBuildType(locator),
+                    () -> repository.updateBuildType(locator, body), () -> repository.deleteBuildType(locator));
+            case "buildQueue" -> locator == null
+                    ? collectionOrCreate(method, "build", searchLocator, repository::listQueuedBuilds,
+                    () -> repository.triggerBuild(body))
+                    : entity(method, () -> repository.readBuild(locator), notAllowed(method),
+                    () -> repository.cancelQueuedBuild(locator));
+            case "builds" -> locator == null
+                    ? collectionOrCreate(method, "build", searchLocator, repository::listBuilds, notAllowed(method))
+                    : entity(method, () -> repository.readBuild(locator), notAllowed(method),
+                    () -> repository.deleteBuild(locator));
+            case "users" -> locator == null
+                    ? collectionOrCreate(method, "user", searchLocator, repository::listUsers,
+                    () -> repository.createUser(body))
+                    : entity(method, () -> repository.readUser(locator),
+                    () -> repository.updateUser(locator, body), () -> repository.deleteUser(locator));
+            default -> throw new StubException(HttpStatus.SC_NOT_FOUND, "Unknown resource " + path);
+        };
+    }
+
+    private JsonNode collectionOrCreate(String method, String itemKey, String searchLocator,
+                                        Supplier<List<ObjectNode>> list, Supplier<ObjectNode> create) {
+        return switch (method) {
+            case "GET" -> collection(itemKey, searchLocator, list.get());
+            case "POST" -> create.get();
+            default -> throw methodNotAllowed(method);
+        };
+    }
+
+    // Страница коллекции по локатору: start и count задают страницу, item:(...) - перечень альтернативных
+    // локаторов, остальные измерения - точное совпадение полей
+    private JsonNode collection(String itemKey, String searchLocator, List<ObjectNode> items) {
+        var start = 0;
+        var count = Integer.MAX_VALUE;
+        var conditions = new ArrayList<String[]>();
+        var alternatives = new ArrayList<List<String[]>>();
+        if (searchLocator != null) {
+            for (var dimension : dimensions(searchLocator)) {
+                switch (dimension[0]) {
+                    case "start" -> start = Integer.parseInt(dimension[1]);
+                    case "count" -> count = Integer.parseInt(dimension[1]);
+                    case "item" -> alternatives.add(dimensions(unwrap(dimension[1])));
+                    default -> conditions.add(dimension);
+                }
+            }
+        }
+        var page = items.stream()
+                .filter(item -> matches(item, conditions))
+                .filter(item -> alternatives.isEmpty()
+                        || alternatives.stream().anyMatch(alternative -> matches(item, alternative)))
+                .skip(start)
+                .limit(count)
+                .toList();
+        var node = mapper.createObjectNode();
+        node.put("count", page.size());
+        // Как и TeamCity, пустая коллекция отдается без массива элементов
+        if (!page.isEmpty()) {
+            node.putArray(itemKey).addAll(page);
+        }
+        return node;
+    }
+
+    // Измерения локатора "name:value" через запятую; запятые внутри скобок относятся к значению
+    private static List<String[]> dimensions(String locator) {
+        var dimensions = new ArrayList<String[]>();
+        var depth = 0;
+        var from = 0;
+        for (var i = 0; i <= locator.length(); i++) {
+            var c = i < locator.length() ? locator.charAt(i) : ',';
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                var dimension = locator.substring(from, i);
+                var separator = dimension.indexOf(':');
+                if (separator < 0) {
+                    throw new StubException(HttpStatus.SC_BAD_REQUEST, "Invalid locator " + locator);
+                }
+                dimensions.add(new String[]{dimension.substring(0, separator), dimension.substring(separator + 1)});
+                from = i + 1;
+            }
+        }
+        return dimensions;
+    }
+
+    private static String unwrap(String value) {
+        return value.startsWith("(") && value.endsWith(")") ? value.substring(1, value.length() - 1) : value;
+    }
+
+    private static boolean matches(ObjectNode item, List<String[]> dimensions) {
+        return dimensions.stream().allMatch(dimension -> dimension[1].equals(item.path(dimension[0]).asText()));
+    }
+
+    private JsonNode entity(String method, Supplier<ObjectNode> read, Supplier<ObjectNode> update,
+                            Runnable delete) {
+        return switch (method) {
+            case "GET" -> read.get();
+            case "PUT" -> update.get();
+            case "DELETE" -> {
+                delete.run();
+                yield null;
+            }
+            default -> throw methodNotAllowed(method);
+        };
+    }
+
+    private static Supplier<ObjectNode> notAllowed(String method) {
+        return () -> {
+            throw methodNotAllowed(method);
+        };
+    }
+
+    private static StubException methodNotAllowed(String method) {
+        return new StubException(HttpStatus.SC_METHOD_NOT_ALLOWED, "Method %s is not supported".formatted(method));
+    }
+
+    private void login(HttpExchange exchange) throws IOException {
+        var credentials = basicCredentials(exchange.getRequestHeaders().getFirst("Authorization"));
+        if (credentials == null || !repository.authenticate(credentials[0], credentials[1])) {
+            sendError(exchange, HttpStatus.SC_UNAUTHORIZED, "Authentication required");
+            return;
+        }
+        exchange.getResponseHeaders().add("Set-Cookie", "%s=%s; Path=/; HttpOnly"
+                .formatted(SESSION_COOKIE, UUID.randomUUID()));
+        send(exchange, HttpStatus.SC_OK, "text/plain", UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] basicCredentials(String header) {
+        if (header == null || !header.startsWith("Basic ")) {
+            return null;
+        }
+        var decoded = new String(Base64.getDecoder().decode(header.substring("Basic ".length()).trim()),
+                StandardCharsets.UTF_8);
+        var separator = decoded.indexOf(':');
+        return separator < 0 ? null : new String[]{decoded.substring(0, separator), decoded.substring(separator + 1)};
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        var query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (var parameter : query.split("&")) {
+            var separator = parameter.indexOf('=');
+            if (separator > 0 && parameter.substring(0, separator).equals(name)) {
+                return URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private JsonNode readBody(HttpExchange exchange) throws IOException {
+        var bytes = exchange.getRequestBody().readAllBytes();
+        return bytes.length == 0 ? mapper.createObjectNode() : mapper.readTree(bytes);
+    }
+
+    // Формат ошибок TeamCity: проверки в ResponseSpecifications ищут текст ошибки в теле ответа
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        var body = "Error has occurred during request processing (status %d).%nError: %s%n".formatted(status, message);
+        send(exchange, status, "text/plain", body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType + ";charset=UTF-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (var stream = exchange.getResponseBody()) {
+            stream.write(body);
+        }
+    }
+}
@@ -1,4 +1,15 @@
 package api;
 
+import api.generators.EntityPool;
+import api.models.User;
+import org.testng.annotations.AfterSuite;
+
 public class BaseApiTest extends BaseTest {
+    // Пользователи создаются заранее и выдаются тестам в аренду, а не создаются и удаляются в каждом тесте
+    protected static final EntityPool<User> USER_POOL = EntityPool.users();
+
+    @AfterSuite(alwaysRun = true)
+    public void closeEntityPools() {
+        USER_POOL.close();
+    }
 }
@@ -1,35 +1,90 @@
 package api;
 
+import api.config.Config;
+import api.data.RandomData;
+import api.data.TestDataPool;
+import api.generators.Sandbox;
 import api.generators.TestDataStorage;
+import api.metrics.RequestMetrics;
+import api.metrics.RunReport;
 import api.models.TestData;
 import api.requests.checked.CheckedRequests;
+import api.spec.ExchangeLog;
 import api.spec.Specifications;
+import api.stub.TeamCityStub;
+import org.testng.ITestResult;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.AfterTest;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeTest;
 import org.testng.asserts.SoftAssert;
 
+import java.nio.file.Path;
+
 public class BaseTest {
-    protected SoftAssert softAssert;
+    static {
+        // useStub=true: тесты идут во встроенную заглушку TeamCity, host подменяется до построения спецификаций
+        TeamCityStub.startIfConfigured();
+    }
+
+    private static final TestDataPool TEST_DATA_POOL = TestDataPool.fromConfig();
+    // Состояние теста хранится по потокам, чтобы методы одного экземпляра класса можно было запускать параллельно
+    private final ThreadLocal<SoftAssert> softAssert = new ThreadLocal<>();
+    private final ThreadLocal<TestData> testData = new ThreadLocal<>();
     protected CheckedRequests checkedRequesterAuthBySuperUser = new CheckedRequests(Specifications.superUserSpec());
-    protected TestData testData;
 
 
+    // Имена сущностей теста берутся из его собственной последовательности RandomData и повторяются при том же seed
     @BeforeMethod(alwaysRun = true)
-    public void beforeTestMethod() {
-        softAssert = new SoftAssert();
-        testData = TestData.generate();
+    public void beforeTestMethod(ITestResult result) {
+        RandomData.openScope(result.getMethod().getQualifiedName());
+        ExchangeLog.open();
+        TestDataStorage.openScope();
+        softAssert.set(new SoftAssert());
+        testData.set(TEST_DATA_POOL.take());
     }
 
     @AfterMethod(alwaysRun = true)
-    public void afterTestMethod() {
-        softAssert.assertAll();
+    public void afterTestMethod(ITestResult result) {
+        var log = ExchangeLog.current();
+        try {
+            if (!result.isSuccess()) {
+                log.dump("Test " + result.getName() + " failed");
+            }
+            log.dumpOnFailure(() -> {
+                softAssert().assertAll();
+                return null;
+            });
+        } finally {
+            softAssert.remove();
+            testData.remove();
+            TestDataStorage.closeScope();
+            ExchangeLog.close();
+            RandomData.closeScope();
+        }
     }
 
     @AfterTest(alwaysRun = true)
     public void afterTest() {
-        TestDataStorage.getStorage().deleteCreatedEntities();
+        TestDataStorage.getGlobalStorage().deleteCreatedEntities();
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void afterSuite() {
+        Sandbox.global().delete();
+        var reportDir = Path.of(Config.getProperty("metricsReportDir"));
+        RequestMetrics.global().export(reportDir);
+        RunReport.global().put("testDataPool", TEST_DATA_POOL.getMetrics());
+        RunReport.global().export(reportDir);
+    }
+
+    protected SoftAssert softAssert() {
+        return softAssert.get();
+    }
+
+    protected TestData testData() {
+        return testData.get();
     }
 
 }
@@ -0,0 +1,104 @@
+package api.data;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+public class RandomDataTest {
+
+    // Другие ключи и порядок обращения к ним не влияют на последовательность ключа
+    @Test
+    public void sameSeedAndKeyShouldRepeatSequence() {
+        var first = new RandomData.Sequences(42);
+        var second = new RandomData.Sequences(42);
+        second.get("api.OtherTest.method").next();
+
+        var expected = new ArrayList<Long>();
+        var actual = new ArrayList<Long>();
+        for (var i = 0; i < 1000; i++) {
+            expected.add(first.get("api.SomeTest.method").next());
+            second.get("thread:pool-1-thread-" + i).next();
+            actual.add(second.get("api.SomeTest.method").next());
+        }
+
+        assertEquals(actual, expected);
+    }
+
+    @Test
+    public void differentSeedShouldGiveDifferentSequence() {
+        var first = new RandomData.Sequences(42).get("api.SomeTest.method");
+        var second = new RandomData.Sequences(43).get("api.SomeTest.method");
+
+        assertNotEquals(first.next(), second.next());
+    }
+
+    @Test
+    public void sequencesShouldNotOverlap() {
+        var sequences = new RandomData.Sequences(7);
+        var values = ConcurrentHashMap.<Long>newKeySet();
+        var total = 0;
+        var tasks = new ArrayList<CompletableFuture<Void>>();
+        for (var thread = 0; thread < 8; thread++) {
+            // Половина потоков делит один ключ, остальные берут по ключу на поток
+            var key = thread % 2 == 0 ? "shared" : "key" + thread;
+            tasks.add(CompletableFuture.runAsync(() -> {
+                var sequence = sequences.get(key);
+                for (var i = 0; i < 50_000; i++) {
+                    var value = sequence.next();
+                    assertTrue(value >= 0 && value < 1L << 56, "Value out of range: " + value);
+                    values.add(value);
+                }
+            }));
+            total += 50_000;
+        }
+        tasks.forEach(CompletableFuture::join);
+
+        assertEquals(values.size(), total);
+    }
+
+    @Test
+    public void equalValuesShouldGiveEqualStrings() {
+        var first = new char[30];
+        var second = new char[30];
+        RandomData.fill(123_456_789L, 42, first, 0, 30);
+        RandomData.fill(123_456_789L, 42, second, 0, 30);
+
+        assertEquals(new String(second), new String(first));
+        assertTrue(new String(first).matches("[a-zA-Z]{30}"));
+    }
+
+    @Test
+    public void stringsShouldBeUniqueAcrossScopesAndThreads() {
+        var strings = IntStream.range(0, 8).parallel()
+                .mapToObj(thread -> {
+                    var generated = new ArrayList<String>();
+                    if (thread % 2 == 0) {
+                        RandomData.openScope("api.RandomDataTest.scope" + thread % 4);
+                    }
+                    try {
+                        for (var i = 0; i < 20_000; i++) {
+                            generated.add(RandomData.getString(i % 3 == 0 ? 40 : 0));
+                        }
+                    } finally {
+                        RandomData.closeScope();
+                    }
+                    return generated;
+                })
+                .flatMap(List::stream)
+                .toList();
+        Set<String> unique = new HashSet<>(strings);
+
+        assertEquals(unique.size(), strings.size());
+        assertTrue(strings.stream().allMatch(value -> value.startsWith("test_")));
+    }
+}
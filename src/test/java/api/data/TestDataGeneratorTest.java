@@ -0,0 +1,20 @@
+package api.data;
+
+import api.models.TestData;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertSame;
+
+public class TestDataGeneratorTest {
+
+    // Билд-конфигурация ссылается на проект, сгенерированный раньше нее, а не на новый
+    @Test
+    public void linkedGenerationShouldReuseGeneratedModels() {
+        var testData = TestData.generate();
+
+        assertNotNull(testData.getProject().getId());
+        assertNotNull(testData.getUser().getUsername());
+        assertSame(testData.getBuildType().getProject(), testData.getProject());
+    }
+}
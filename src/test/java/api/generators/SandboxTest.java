@@ -0,0 +1,160 @@
+package api.generators;
+
+import api.enums.Endpoint;
+import api.models.BuildType;
+import api.models.ParentProject;
+import api.models.Project;
+import api.models.User;
+import api.requests.unchecked.UncheckedBase;
+import api.stub.StubSpecs;
+import api.stub.TeamCityStub;
+import io.restassured.specification.RequestSpecification;
+import org.apache.http.HttpStatus;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class SandboxTest {
+    private TeamCityStub stub;
+    private RequestSpecification spec;
+    private UncheckedBase projects;
+
+    @BeforeClass
+    public void startStub() {
+        stub = TeamCityStub.start(null);
+        spec = StubSpecs.spec(stub);
+        projects = new UncheckedBase(spec, Endpoint.PROJECTS);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStub() {
+        if (stub != null) {
+            stub.close();
+        }
+    }
+
+    @Test
+    public void projectWithoutParentShouldBeCreatedInSandbox() {
+        var sandbox = new Sandbox("SandboxTest_created", () -> spec);
+        var project = project("SandboxTest_created_child");
+
+        sandbox.applyDefaultParent(project);
+        sandbox.ensureCreatedFor(project);
+
+        assertEquals(project.getParentProject().getLocator(), "id:SandboxTest_created");
+        assertEquals(projects.create(project).getStatusCode(), HttpStatus.SC_OK);
+        var created = projects.read(project.getId()).as(Project.class);
+        assertEquals(created.getParentProject().getId(), "SandboxTest_created");
+    }
+
+    @Test
+    public void explicitParentShouldBeKept() {
+        var sandbox = new Sandbox("SandboxTest_explicit", () -> spec);
+        var project = project("SandboxTest_explicit_child");
+        project.setParentProject(ParentProject.builder().locator("id:_Root").build());
+
+        sandbox.applyDefaultParent(project);
+        sandbox.ensureCreatedFor(project);
+
+        assertEquals(project.getParentProject().getLocator(), "id:_Root");
+        assertEquals(projects.read("SandboxTest_explicit").getStatusCode(), HttpStatus.SC_NOT_FOUND);
+    }
+
+    @Test
+    public void disabledSandboxShouldChangeNothing() {
+        var sandbox = new Sandbox(null, () -> spec);
+        var project = project("SandboxTest_disabled");
+
+        sandbox.applyDefaultParent(project);
+
+        assertNull(project.getParentProject());
+        assertFalse(sandbox.covers(Endpoint.BUILD_TYPES));
+        assertFalse(sandbox.containsProject("SandboxTest_disabled", Map.of("SandboxTest_disabled", "_Root")));
+    }
+
+    @Test
+    public void projectsInsideSandboxShouldBeCovered() {
+        var sandbox = new Sandbox("SandboxTest_covers", () -> spec);
+        var parents = Map.of("child", "SandboxTest_covers", "grandchild", "child", "outside", "_Root");
+
+        assertTrue(sandbox.containsProject("child", parents));
+        assertTrue(sandbox.containsProject("grandchild", parents));
+        assertFalse(sandbox.containsProject("outside", parents));
+        assertFalse(sandbox.containsProject("unknown", parents));
+        assertTrue(sandbox.covers(Endpoint.BUILD_TYPES));
+        assertTrue(sandbox.covers(Endpoint.BUILDS));
+        assertFalse(sandbox.covers(Endpoint.PROJECTS));
+        assertFalse(sandbox.covers(Endpoint.USERS));
+    }
+
+    // Хранилище передает в удаление только то, что не удалится вместе с корневым проектом
+    @Test
+    public void storageShouldSkipEntitiesCoveredBySandbox() {
+        var sandbox = new Sandbox("SandboxTest_storage", () -> spec);
+        var inside = project("SandboxTest_storage_inside");
+        sandbox.applyDefaultParent(inside);
+        var outside = project("SandboxTest_storage_outside");
+        outside.setParentProject(ParentProject.builder().locator("id:_Root").build());
+        var storage = new TestDataStorage();
+        storage.addCreatedEntity(Endpoint.PROJECTS, inside);
+        storage.addCreatedEntity(Endpoint.PROJECTS, outside);
+        storage.addCreatedEntity(Endpoint.BUILD_TYPES, BuildType.builder().id("SandboxTest_storage_bt").build());
+        storage.addCreatedEntity(Endpoint.USERS, User.builder().id("sandbox_test_user").build());
+        var deleted = new HashMap<Endpoint, Collection<String>>();
+
+        storage.deleteCreatedEntities(sandbox, () -> new TestDataCleaner(1) {
+            @Override
+            public CleanupReport delete(Map<Endpoint, ? extends Collection<String>> createdEntities,
+                                        Map<String, String> projectParents) {
+                createdEntities.forEach((endpoint, ids) -> {
+                    if (!ids.isEmpty()) {
+                        deleted.put(endpoint, Set.copyOf(ids));
+                    }
+                });
+                return new CleanupReport();
+            }
+        });
+
+        assertEquals(deleted, Map.of(Endpoint.PROJECTS, Set.of("SandboxTest_storage_outside"),
+                Endpoint.USERS, Set.of("sandbox_test_user")));
+    }
+
+    @Test
+    public void teardownShouldDeleteSubtreeOnce() {
+        var sandbox = new Sandbox("SandboxTest_teardown", () -> spec);
+        var project = project("SandboxTest_teardown_child");
+        sandbox.applyDefaultParent(project);
+        sandbox.ensureCreatedFor(project);
+        projects.create(project);
+        var buildType = BuildType.builder().id("SandboxTest_teardown_bt").name("bt").project(project).build();
+        assertEquals(new UncheckedBase(spec, Endpoint.BUILD_TYPES).create(buildType).getStatusCode(),
+                HttpStatus.SC_OK);
+
+        sandbox.delete();
+        sandbox.delete();
+
+        assertEquals(projects.read("SandboxTest_teardown").getStatusCode(), HttpStatus.SC_NOT_FOUND);
+        assertEquals(projects.read(project.getId()).getStatusCode(), HttpStatus.SC_NOT_FOUND);
+        assertEquals(new UncheckedBase(spec, Endpoint.BUILD_TYPES).read(buildType.getId()).getStatusCode(),
+                HttpStatus.SC_NOT_FOUND);
+        // После конца прогона корневой проект не создается заново
+        var late = project("SandboxTest_teardown_late");
+        sandbox.applyDefaultParent(late);
+        assertThrows(IllegalStateException.class, () -> sandbox.ensureCreatedFor(late));
+    }
+
+    private static Project project(String id) {
+        return Project.builder().id(id).name(id).build();
+    }
+}
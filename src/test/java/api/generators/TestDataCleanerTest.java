@@ -0,0 +1,122 @@
+package api.generators;
+
+import api.enums.Endpoint;
+import api.models.Build;
+import api.models.BuildType;
+import api.models.ParentProject;
+import api.models.Project;
+import api.models.User;
+import api.requests.Locators;
+import api.requests.unchecked.UncheckedBase;
+import api.stub.StubSpecs;
+import api.stub.TeamCityStub;
+import io.restassured.filter.Filter;
+import io.restassured.specification.RequestSpecification;
+import org.apache.http.HttpStatus;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+// Удаление в собственной заглушке TeamCity; порядок запросов записывается фильтром спецификации
+public class TestDataCleanerTest {
+    private TeamCityStub stub;
+    private RequestSpecification spec;
+    private final List<String> deletes = new CopyOnWriteArrayList<>();
+
+    @BeforeClass
+    public void startStub() {
+        stub = TeamCityStub.start(null);
+        Filter recorder = (requestSpec, responseSpec, ctx) -> {
+            if ("DELETE".equals(requestSpec.getMethod())) {
+                deletes.add(URI.create(requestSpec.getURI()).getPath());
+            }
+            return ctx.next(requestSpec, responseSpec);
+        };
+        spec = StubSpecs.builder(stub).addFilter(recorder).build();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStub() {
+        if (stub != null) {
+            stub.close();
+        }
+    }
+
+    // Сборки, затем билд-конфигурации, затем проекты от вложенных к родителям, затем пользователи
+    @Test
+    public void entitiesShouldBeDeletedInDependencyOrder() {
+        var parent = createProject(Project.builder().id("CleanerParent").name("CleanerParent").build());
+        var child = createProject(Project.builder().id("CleanerChild").name("CleanerChild")
+                .parentProject(ParentProject.builder().locator(Locators.byId(parent)).build()).build());
+        createBuildType("CleanerBuild", child);
+        var user = new UncheckedBase(spec, Endpoint.USERS)
+                .create(User.builder().username("cleaner").password("cleaner").build()).as(User.class).getId();
+        deletes.clear();
+
+        var report = new TestDataCleaner(spec, 4).delete(Map.of(
+                Endpoint.USERS, List.of(user),
+                Endpoint.PROJECTS, List.of(parent, child),
+                Endpoint.BUILD_TYPES, List.of("CleanerBuild")), Map.of(child, parent));
+
+        assertFalse(report.hasFailures(), report.toString());
+        assertEquals(deletes, List.of(Endpoint.BUILD_TYPES.getUrl() + "/id:CleanerBuild",
+                Endpoint.PROJECTS.getUrl() + "/id:" + child, Endpoint.PROJECTS.getUrl() + "/id:" + parent,
+                Endpoint.USERS.getUrl() + "/id:" + user));
+        assertEquals(report.getReports().get(Endpoint.PROJECTS).getDeleted(), 2);
+    }
+
+    // Сущность, которой уже нет на сервере, считается удаленной
+    @Test
+    public void missingEntityShouldCountAsDeleted() {
+        var report = new TestDataCleaner(spec, 4).delete(Map.of(Endpoint.PROJECTS, List.of("CleanerMissing")),
+                Map.of());
+
+        assertFalse(report.hasFailures(), report.toString());
+        assertEquals(report.getReports().get(Endpoint.PROJECTS).getDeleted(), 1);
+    }
+
+    // Сборка вышла из очереди: отмена возвращает 404, и сборка удаляется из истории
+    @Test
+    public void buildLeftQueueShouldBeDeletedAsBuild() throws InterruptedException {
+        var project = createProject(Project.builder().id("CleanerQueue").name("CleanerQueue").build());
+        createBuildType("CleanerQueueBuild", project);
+        var build = new UncheckedBase(spec, Endpoint.BUILD_QUEUE).create(Build.of("CleanerQueueBuild"))
+                .as(Build.class).getId();
+        var builds = new UncheckedBase(spec, Endpoint.BUILDS);
+        while ("queued".equals(builds.read(build).as(Build.class).getState())) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        deletes.clear();
+
+        var report = new TestDataCleaner(spec, 4).delete(Map.of(Endpoint.BUILD_QUEUE, List.of(build)), Map.of());
+
+        assertFalse(report.hasFailures(), report.toString());
+        assertEquals(deletes, List.of(Endpoint.BUILD_QUEUE.getUrl() + "/id:" + build,
+                Endpoint.BUILDS.getUrl() + "/id:" + build));
+        assertEquals(report.getReports().get(Endpoint.BUILDS).getDeleted(), 1);
+        assertEquals(report.getReports().get(Endpoint.BUILD_QUEUE).getDeleted(), 0);
+        assertEquals(builds.read(build).getStatusCode(), HttpStatus.SC_NOT_FOUND);
+    }
+
+    private String createProject(Project project) {
+        var response = new UncheckedBase(spec, Endpoint.PROJECTS).create(project);
+        assertEquals(response.getStatusCode(), HttpStatus.SC_OK, response.asString());
+        return response.as(Project.class).getId();
+    }
+
+    private void createBuildType(String id, String projectId) {
+        var buildType = BuildType.builder().id(id).name("Build").project(Project.builder().id(projectId).build())
+                .build();
+        assertEquals(new UncheckedBase(spec, Endpoint.BUILD_TYPES).create(buildType).getStatusCode(),
+                HttpStatus.SC_OK);
+    }
+}
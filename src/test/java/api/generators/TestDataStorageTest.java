@@ -0,0 +1,102 @@
+package api.generators;
+
+import api.enums.Endpoint;
+import api.models.Project;
+import org.testng.annotations.Test;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestDataStorageTest {
+    private static final Sandbox NO_SANDBOX = new Sandbox(null, () -> null);
+
+    // Области открыты одновременно, и каждая удаляет только сущности своего потока
+    @Test
+    public void parallelScopesShouldDeleteOnlyOwnEntities() {
+        var threads = 4;
+        var barrier = new CyclicBarrier(threads);
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            var futures = IntStream.range(0, threads)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                        var storage = TestDataStorage.openScope();
+                        assertSame(TestDataStorage.getStorage(), storage);
+                        assertNotSame(storage, TestDataStorage.getGlobalStorage());
+                        TestDataStorage.getStorage().addCreatedEntity(Endpoint.PROJECTS, project("scope_" + i));
+                        await(barrier);
+                        var deleted = new HashSet<String>();
+                        TestDataStorage.closeScope(NO_SANDBOX, () -> recordingCleaner(deleted));
+                        assertSame(TestDataStorage.getStorage(), TestDataStorage.getGlobalStorage());
+                        return deleted;
+                    }, executor))
+                    .toList();
+
+            for (var i = 0; i < threads; i++) {
+                assertEquals(futures.get(i).join(), Set.of("scope_" + i));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void entitiesOutsideScopeShouldGoToGlobalStorage() {
+        var deleted = new HashSet<String>();
+
+        CompletableFuture.runAsync(() -> {
+            assertSame(TestDataStorage.getStorage(), TestDataStorage.getGlobalStorage());
+            TestDataStorage.closeScope(NO_SANDBOX, () -> recordingCleaner(deleted));
+        }).join();
+
+        assertTrue(deleted.isEmpty(), deleted.toString());
+    }
+
+    // Повторное удаление не отправляет уже удаленные сущности, а добавленные после удаления удаляет
+    @Test
+    public void deletedEntitiesShouldNotBeDeletedAgain() {
+        var storage = new TestDataStorage();
+        storage.addCreatedEntity(Endpoint.PROJECTS, project("storage_first"));
+        var first = new HashSet<String>();
+        storage.deleteCreatedEntities(NO_SANDBOX, () -> recordingCleaner(first));
+        storage.addCreatedEntity(Endpoint.PROJECTS, project("storage_second"));
+        var second = new HashSet<String>();
+        storage.deleteCreatedEntities(NO_SANDBOX, () -> recordingCleaner(second));
+
+        assertEquals(List.of(first, second), List.of(Set.of("storage_first"), Set.of("storage_second")));
+    }
+
+    private static TestDataCleaner recordingCleaner(Set<String> deleted) {
+        return new TestDataCleaner(null, 1) {
+            @Override
+            public CleanupReport delete(Map<Endpoint, ? extends Collection<String>> createdEntities,
+                                        Map<String, String> projectParents) {
+                createdEntities.values().forEach(deleted::addAll);
+                return new CleanupReport();
+            }
+        };
+    }
+
+    private static Project project(String id) {
+        return Project.builder().id(id).name(id).build();
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package api.load;
+
+import api.enums.Endpoint;
+import org.testng.annotations.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class LoadReportTest {
+
+    // Операции, которым не нашлось сущности, не считаются ни ошибками, ни запросами
+    @Test
+    public void errorPercentShouldIgnoreGivenErrorTypes() {
+        var report = report(80, 10, 10);
+
+        assertEquals(report.getErrorPercent(Set.of("no entity")), 100.0 * 10 / 90, 1e-9);
+        assertEquals(report.getErrorPercent(Set.of()), 20.0, 1e-9);
+    }
+
+    @Test
+    public void runShouldFailAboveAllowedErrorPercent() {
+        assertTrue(LoadRunner.isFailed(report(90, 10, 0), 5));
+        assertFalse(LoadRunner.isFailed(report(90, 0, 10), 5));
+        assertFalse(LoadRunner.isFailed(report(0, 0, 0), 5));
+    }
+
+    private static LoadReport report(int successes, int httpErrors, int noEntity) {
+        var window = new LoadReport.Window();
+        var latency = TimeUnit.MILLISECONDS.toNanos(1);
+        for (var i = 0; i < successes; i++) {
+            window.record(latency, null);
+        }
+        for (var i = 0; i < httpErrors; i++) {
+            window.record(latency, "HTTP 503");
+        }
+        for (var i = 0; i < noEntity; i++) {
+            window.record(latency, "no entity");
+        }
+        var totals = new LinkedHashMap<Workload.Entry, LoadReport.Window>();
+        totals.put(new Workload.Entry(Endpoint.PROJECTS, Operation.READ, 1), window);
+        return new LoadReport(List.of(window), totals, 1000);
+    }
+}
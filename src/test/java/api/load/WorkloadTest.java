@@ -0,0 +1,55 @@
+package api.load;
+
+import api.enums.Endpoint;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class WorkloadTest {
+
+    @Test
+    public void mixShouldBeParsedInOrder() {
+        var workload = Workload.parse("PROJECTS:CREATE=20, PROJECTS:READ=60 ,USERS:DELETE=5");
+
+        assertEquals(workload.getEntries(), List.of(
+                new Workload.Entry(Endpoint.PROJECTS, Operation.CREATE, 20),
+                new Workload.Entry(Endpoint.PROJECTS, Operation.READ, 60),
+                new Workload.Entry(Endpoint.USERS, Operation.DELETE, 5)));
+    }
+
+    @Test
+    public void invalidItemShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Workload.parse("PROJECTS:CREATE"));
+        assertThrows(IllegalArgumentException.class, () -> Workload.parse("PROJECTS=CREATE=10=2"));
+        assertThrows(IllegalArgumentException.class, () -> Workload.parse("UNKNOWN:CREATE=10"));
+        assertThrows(IllegalArgumentException.class, () -> Workload.parse("PROJECTS:COPY=10"));
+        assertThrows(IllegalArgumentException.class, () -> Workload.parse("PROJECTS:CREATE=many"));
+    }
+
+    @Test
+    public void mixWithoutPositiveWeightShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Workload.parse("PROJECTS:CREATE=0,PROJECTS:READ=0"));
+    }
+
+    @Test
+    public void pickShouldFollowWeights() {
+        var workload = Workload.parse("PROJECTS:CREATE=10,PROJECTS:READ=90,USERS:CREATE=0");
+        var random = new SplittableRandom(42);
+        var picks = new HashMap<Operation, Integer>();
+        var total = 100_000;
+        for (var i = 0; i < total; i++) {
+            var entry = workload.pick(random);
+            assertTrue(entry.weight() > 0, "Entry with zero weight is picked");
+            picks.merge(entry.operation(), 1, Integer::sum);
+        }
+
+        assertEquals(picks.get(Operation.CREATE) / (double) total, 0.1, 0.01);
+        assertEquals(picks.get(Operation.READ) / (double) total, 0.9, 0.01);
+    }
+}
@@ -0,0 +1,73 @@
+package api.metrics;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void emptyHistogramShouldReportZeros() {
+        var histogram = new LatencyHistogram();
+
+        assertEquals(histogram.getCount(), 0L);
+        assertEquals(histogram.getMeanMicros(), 0.0, 0.0);
+        assertEquals(histogram.getPercentileMicros(99), 0L);
+        assertEquals(histogram.getMaxMicros(), 0L);
+    }
+
+    @Test
+    public void smallValuesShouldBeExact() {
+        var histogram = new LatencyHistogram();
+        for (var micros = 1; micros <= 10; micros++) {
+            histogram.record(micros, TimeUnit.MICROSECONDS);
+        }
+
+        assertEquals(histogram.getCount(), 10L);
+        assertEquals(histogram.getMeanMicros(), 5.5, 0.0);
+        assertEquals(histogram.getPercentileMicros(50), 5L);
+        assertEquals(histogram.getPercentileMicros(100), 10L);
+        assertEquals(histogram.getMaxMicros(), 10L);
+    }
+
+    // Относительная погрешность перцентиля не больше 1/16
+    @Test
+    public void percentilesShouldStayWithinBucketPrecision() {
+        var histogram = new LatencyHistogram();
+        for (var millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis, TimeUnit.MILLISECONDS);
+        }
+
+        assertWithinPrecision(histogram.getPercentileMicros(50), 500_000);
+        assertWithinPrecision(histogram.getPercentileMicros(90), 900_000);
+        assertWithinPrecision(histogram.getPercentileMicros(99), 990_000);
+        assertEquals(histogram.getMaxMicros(), 1_000_000L);
+    }
+
+    @Test
+    public void percentileShouldNotExceedMax() {
+        var histogram = new LatencyHistogram();
+        histogram.record(1_000_001, TimeUnit.MICROSECONDS);
+        histogram.record(1_000_002, TimeUnit.MICROSECONDS);
+
+        assertTrue(histogram.getPercentileMicros(100) <= histogram.getMaxMicros());
+        assertWithinPrecision(histogram.getPercentileMicros(100), 1_000_002);
+    }
+
+    @Test
+    public void negativeDurationShouldBeRecordedAsZero() {
+        var histogram = new LatencyHistogram();
+        histogram.record(-5, TimeUnit.MILLISECONDS);
+
+        assertEquals(histogram.getCount(), 1L);
+        assertEquals(histogram.getMaxMicros(), 0L);
+    }
+
+    private static void assertWithinPrecision(long actual, long expected) {
+        assertTrue(Math.abs(actual - expected) <= expected / 16,
+                "Percentile %d is too far from %d".formatted(actual, expected));
+    }
+}
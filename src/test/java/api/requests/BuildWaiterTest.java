@@ -0,0 +1,101 @@
+package api.requests;
+
+import api.enums.Endpoint;
+import api.models.Build;
+import api.models.BuildType;
+import api.models.Project;
+import api.requests.unchecked.UncheckedBase;
+import api.spec.ModelMapper;
+import api.stub.TeamCityStub;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.ObjectMapperConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import org.apache.http.HttpStatus;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+// Сборки запускаются в собственной заглушке TeamCity, глобальный host не меняется
+public class BuildWaiterTest {
+    private static final String BUILD_TYPE_ID = "BuildWaiterTest_Build";
+
+    private TeamCityStub stub;
+    private RequestSpecification spec;
+    private BuildWaiter waiter;
+
+    @BeforeClass
+    public void startStub() {
+        stub = TeamCityStub.start(null);
+        spec = new RequestSpecBuilder()
+                .setBaseUri("http://" + stub.getHost())
+                .setContentType(ContentType.JSON)
+                .setAccept(ContentType.JSON)
+                .setConfig(RestAssuredConfig.config().objectMapperConfig(ObjectMapperConfig.objectMapperConfig()
+                        .defaultObjectMapper(new ModelMapper())))
+                .build();
+        var project = Project.builder().id("BuildWaiterTest").name("BuildWaiterTest").build();
+        assertEquals(new UncheckedBase(spec, Endpoint.PROJECTS).create(project).getStatusCode(), HttpStatus.SC_OK);
+        var buildType = BuildType.builder().id(BUILD_TYPE_ID).name("Build").project(project).build();
+        assertEquals(new UncheckedBase(spec, Endpoint.BUILD_TYPES).create(buildType).getStatusCode(),
+                HttpStatus.SC_OK);
+        waiter = new BuildWaiter(spec, Duration.ofMillis(50), Duration.ofMillis(200), 2, Duration.ofSeconds(30));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStub() {
+        if (stub != null) {
+            stub.close();
+        }
+    }
+
+    // Пачка меньше числа сборок: сборки опрашиваются несколькими запросами
+    @Test
+    public void triggeredBuildsShouldBeWaitedUntilFinished() throws Exception {
+        var ids = new ArrayList<String>();
+        for (var i = 0; i < 5; i++) {
+            ids.add(trigger());
+        }
+
+        var builds = waiter.waitForAll(ids).get(30, TimeUnit.SECONDS);
+
+        assertEquals(builds.stream().map(Build::getId).toList(), ids);
+        assertTrue(builds.stream().allMatch(Build::isFinished), "Not all builds are finished: " + builds);
+        assertEquals(waiter.getPendingCount(), 0);
+    }
+
+    @Test
+    public void repeatedWaitShouldReturnSameFuture() throws Exception {
+        var id = trigger();
+
+        var future = waiter.waitFor(id);
+
+        assertSame(waiter.waitFor(id), future);
+        assertTrue(future.get(30, TimeUnit.SECONDS).isFinished());
+    }
+
+    @Test
+    public void missingBuildShouldFailWait() {
+        var future = waiter.waitFor("999999");
+
+        var error = expectThrows(ExecutionException.class, () -> future.get(30, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof IllegalStateException, "Unexpected error: " + error.getCause());
+    }
+
+    private String trigger() {
+        var response = new UncheckedBase(spec, Endpoint.BUILD_QUEUE).create(Build.of(BUILD_TYPE_ID));
+        assertEquals(response.getStatusCode(), HttpStatus.SC_OK);
+        return response.as(Build.class).getId();
+    }
+}
@@ -0,0 +1,241 @@
+package api.requests;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.response.Response;
+import org.apache.http.HttpStatus;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class ConcurrencyLimiterTest {
+
+    @Test
+    public void overloadResponseShouldCutLimit() {
+        var limiter = limiter(10, 100, 0);
+
+        var response = limiter.execute("GET", () -> response(HttpStatus.SC_SERVICE_UNAVAILABLE));
+
+        assertEquals(response.getStatusCode(), HttpStatus.SC_SERVICE_UNAVAILABLE);
+        assertEquals(limiter.getLimit(), 5);
+    }
+
+    @Test
+    public void limitShouldNotDropBelowMinimum() {
+        var limiter = limiter(2, 100, 0);
+        for (var i = 0; i < 5; i++) {
+            limiter.execute("POST", () -> response(429));
+        }
+
+        assertEquals(limiter.getLimit(), 1);
+    }
+
+    // Нагрузочный прогон: ответ 503 возвращается как есть, без повторов
+    @Test
+    public void unlimitedShouldNotRetryOverloadedRequest() {
+        var calls = new AtomicInteger();
+
+        var response = ConcurrencyLimiter.unlimited().execute("GET", () -> {
+            calls.incrementAndGet();
+            return response(HttpStatus.SC_SERVICE_UNAVAILABLE);
+        });
+
+        assertEquals(response.getStatusCode(), HttpStatus.SC_SERVICE_UNAVAILABLE);
+        assertEquals(calls.get(), 1);
+    }
+
+    // Одновременные запросы отправлены до уменьшения лимита, поэтому их ответы 503 уменьшают его один раз
+    @Test
+    public void burstOfOverloadResponsesShouldCutLimitOnce() {
+        var limiter = limiter(10, 100, 0);
+        var started = new CountDownLatch(5);
+        var requests = new ArrayList<CompletableFuture<Response>>();
+        for (var i = 0; i < 5; i++) {
+            requests.add(CompletableFuture.supplyAsync(() -> limiter.execute("POST", () -> {
+                started.countDown();
+                await(started);
+                return response(HttpStatus.SC_SERVICE_UNAVAILABLE);
+            }), RequestExecutors.shared()));
+        }
+        requests.forEach(CompletableFuture::join);
+
+        assertEquals(limiter.getLimit(), 5);
+    }
+
+    // У каждого метода своя базовая задержка: медленное создание не перегрузка для быстрого чтения.
+    // Задержки в миллисекундах, чтобы случайные колебания не превышали допустимые три базовые задержки
+    @Test
+    public void slowMethodShouldNotCutLimitForFastMethod() {
+        var limiter = new ConcurrencyLimiter(10, 1, 100, 0.5, 3, 0, 1);
+        for (var i = 0; i < 20; i++) {
+            limiter.execute("GET", () -> {
+                sleep(5);
+                return response(HttpStatus.SC_OK);
+            });
+        }
+        for (var i = 0; i < 3; i++) {
+            limiter.execute("POST", () -> {
+                sleep(50);
+                return response(HttpStatus.SC_OK);
+            });
+        }
+
+        assertEquals(limiter.getLimit(), 10);
+
+        limiter.execute("GET", () -> {
+            sleep(50);
+            return response(HttpStatus.SC_OK);
+        });
+
+        assertEquals(limiter.getLimit(), 5);
+    }
+
+    @Test
+    public void idempotentRequestShouldBeRetriedOnOverload() {
+        var limiter = limiter(10, 100, 2);
+        var calls = new AtomicInteger();
+
+        var response = limiter.execute("GET", () -> response(calls.incrementAndGet() < 3
+                ? HttpStatus.SC_BAD_GATEWAY : HttpStatus.SC_OK));
+
+        assertEquals(response.getStatusCode(), HttpStatus.SC_OK);
+        assertEquals(calls.get(), 3);
+    }
+
+    @Test
+    public void retriesShouldStopAfterMaxRetries() {
+        var limiter = limiter(10, 100, 2);
+        var calls = new AtomicInteger();
+
+        var response = limiter.execute("GET", () -> {
+            calls.incrementAndGet();
+            return response(HttpStatus.SC_GATEWAY_TIMEOUT);
+        });
+
+        assertEquals(response.getStatusCode(), HttpStatus.SC_GATEWAY_TIMEOUT);
+        assertEquals(calls.get(), 3);
+    }
+
+    @Test
+    public void nonIdempotentRequestShouldNotBeRetried() {
+        var limiter = limiter(10, 100, 2);
+        var calls = new AtomicInteger();
+
+        limiter.execute("POST", () -> {
+            calls.incrementAndGet();
+            return response(HttpStatus.SC_SERVICE_UNAVAILABLE);
+        });
+
+        assertEquals(calls.get(), 1);
+    }
+
+    @Test
+    public void connectionFailureShouldBeRetriedAndOtherErrorsShouldNot() {
+        var limiter = limiter(10, 100, 2);
+        var calls = new AtomicInteger();
+
+        var response = limiter.execute("GET", () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new UncheckedIOException(new IOException("Connection reset"));
+            }
+            return response(HttpStatus.SC_OK);
+        });
+
+        assertEquals(response.getStatusCode(), HttpStatus.SC_OK);
+        assertEquals(calls.get(), 2);
+
+        calls.set(0);
+        assertThrows(IllegalArgumentException.class, () -> limiter.execute("GET", () -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("Bad request");
+        }));
+        assertEquals(calls.get(), 1);
+    }
+
+    @Test
+    public void concurrentRequestsShouldNotExceedLimit() {
+        var limiter = limiter(2, 2, 0);
+        var active = new AtomicInteger();
+        var maxActive = new AtomicInteger();
+        var requests = new ArrayList<CompletableFuture<Response>>();
+        for (var i = 0; i < 8; i++) {
+            requests.add(CompletableFuture.supplyAsync(() -> limiter.execute("GET", () -> {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                sleep(20);
+                active.decrementAndGet();
+                return response(HttpStatus.SC_OK);
+            }), RequestExecutors.shared()));
+        }
+        requests.forEach(CompletableFuture::join);
+
+        assertTrue(maxActive.get() <= 2, "Max concurrent requests: " + maxActive.get());
+    }
+
+    @Test
+    public void interruptedWaiterShouldFail() throws Exception {
+        var limiter = limiter(1, 1, 0);
+        var started = new CountDownLatch(1);
+        var finish = new CountDownLatch(1);
+        var holder = new Thread(() -> limiter.execute("GET", () -> {
+            started.countDown();
+            await(finish);
+            return response(HttpStatus.SC_OK);
+        }));
+        holder.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        var error = new CompletableFuture<Throwable>();
+        var interruptedFlag = new AtomicBoolean();
+        var waiter = new Thread(() -> {
+            try {
+                limiter.execute("GET", () -> response(HttpStatus.SC_OK));
+                error.complete(null);
+            } catch (RuntimeException e) {
+                interruptedFlag.set(Thread.currentThread().isInterrupted());
+                error.complete(e);
+            }
+        });
+        waiter.start();
+        waiter.interrupt();
+
+        assertTrue(error.get(5, TimeUnit.SECONDS) instanceof IllegalStateException);
+        assertTrue(interruptedFlag.get(), "Interrupt flag is not restored");
+        finish.countDown();
+        holder.join();
+    }
+
+    // Высокая допустимая задержка, чтобы лимит менялся только от статусов ответов
+    private static ConcurrencyLimiter limiter(int initialLimit, int maxLimit, int maxRetries) {
+        return new ConcurrencyLimiter(initialLimit, 1, maxLimit, 0.5, 1000, maxRetries, 1);
+    }
+
+    private static Response response(int statusCode) {
+        return new ResponseBuilder().setStatusCode(statusCode).build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package api.requests;
+
+import api.models.Project;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+
+public class PagedSpliteratorTest {
+    private static final ObjectReader READER = new ObjectMapper().readerFor(Project.class);
+
+    @Test
+    public void allPagesShouldBeStreamedInOrder() {
+        var loader = new CollectionLoader(5);
+
+        var ids = PagedSpliterator.<Project>stream(loader, READER, "project", 2).map(Project::getId).toList();
+
+        assertEquals(ids, List.of("p0", "p1", "p2", "p3", "p4"));
+        assertEquals(loader.starts, List.of(0, 2, 4));
+    }
+
+    // Страница длиной pageSize не последняя, поэтому следующая запрашивается и оказывается пустой
+    @Test
+    public void fullLastPageShouldBeFollowedByEmptyPage() {
+        var loader = new CollectionLoader(4);
+
+        assertEquals(PagedSpliterator.<Project>stream(loader, READER, "project", 2).count(), 4L);
+        assertEquals(loader.starts, List.of(0, 2, 4));
+    }
+
+    @Test
+    public void nextPageShouldBeLoadedOnlyWhenNeeded() {
+        var loader = new CollectionLoader(100);
+
+        var ids = PagedSpliterator.<Project>stream(loader, READER, "project", 10).limit(3)
+                .map(Project::getId).toList();
+
+        assertEquals(ids, List.of("p0", "p1", "p2"));
+        assertEquals(loader.starts, List.of(0));
+    }
+
+    @Test
+    public void missingPageShouldEndStream() {
+        PagedSpliterator.PageLoader loader = (start, count) -> null;
+
+        assertEquals(PagedSpliterator.<Project>stream(loader, READER, "project", 10).count(), 0L);
+    }
+
+    @Test
+    public void invalidPageShouldFailStream() {
+        PagedSpliterator.PageLoader loader = (start, count) -> body("[]");
+
+        assertThrows(RuntimeException.class, () -> PagedSpliterator.<Project>stream(loader, READER, "project", 10)
+                .count());
+    }
+
+    @Test
+    public void pageLocatorShouldAppendPageDimensions() {
+        assertEquals(PagedSpliterator.pageLocator("affectedProject:(id:a)", 20, 10),
+                "affectedProject:(id:a),start:20,count:10");
+        assertEquals(PagedSpliterator.pageLocator(null, 0, 10), "start:0,count:10");
+        assertEquals(PagedSpliterator.pageLocator(" ", 0, 10), "start:0,count:10");
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Коллекция из size проектов; пустую страницу, как и TeamCity, отдает без массива элементов
+    private static final class CollectionLoader implements PagedSpliterator.PageLoader {
+        private final int size;
+        private final List<Integer> starts = new ArrayList<>();
+
+        private CollectionLoader(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public InputStream load(int start, int count) {
+            starts.add(start);
+            var end = Math.min(size, start + count);
+            if (start >= end) {
+                return body("{\"count\":0}");
+            }
+            var items = IntStream.range(start, end)
+                    .mapToObj(i -> "{\"id\":\"p%d\",\"name\":\"project %d\"}".formatted(i, i))
+                    .collect(Collectors.joining(","));
+            return body("{\"count\":%d,\"project\":[%s]}".formatted(end - start, items));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package api.requests;
+
+import api.enums.Endpoint;
+import api.models.BuildType;
+import api.models.BuildTypes;
+import api.models.ParentProject;
+import api.models.Project;
+import api.requests.unchecked.UncheckedBase;
+import api.stub.StubSpecs;
+import api.stub.TeamCityStub;
+import org.apache.http.HttpStatus;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertThrows;
+
+public class ProjectionTest {
+    private TeamCityStub stub;
+
+    @BeforeClass
+    public void startStub() {
+        stub = TeamCityStub.start(null);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStub() {
+        if (stub != null) {
+            stub.close();
+        }
+    }
+
+    @Test
+    public void fieldsShouldFollowGetterOrder() {
+        var projection = Projection.of(Project.class, Project::getName, Project::getId,
+                Project::getCopyAllAssociatedSettings);
+
+        assertEquals(projection.fields(), "name,id,copyAllAssociatedSettings");
+    }
+
+    @Test
+    public void nestedProjectionsShouldBeWrappedInParentheses() {
+        var projection = Projection.of(Project.class, Project::getName)
+                .with(Project::getParentProject, Projection.of(ParentProject.class, ParentProject::getId))
+                .with(Project::getBuildTypes, Projection.of(BuildTypes.class, BuildTypes::getCount)
+                        .with(BuildTypes::getBuildType, Projection.of(BuildType.class, BuildType::getId)));
+
+        assertEquals(projection.fields(), "name,parentProject(id),buildTypes(count,buildType(id))");
+    }
+
+    // Имя свойства нельзя вывести из тела лямбды или из метода, который не является геттером
+    @Test
+    public void nonGetterShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Projection.of(Project.class, project -> project.getName()));
+        assertThrows(IllegalArgumentException.class, () -> Projection.of(Project.class, Project::toString));
+    }
+
+    // Сервер возвращает только поля проекции, остальные поля модели остаются пустыми
+    @Test
+    public void partialReadShouldReturnOnlyProjectedFields() {
+        var projects = new UncheckedBase(StubSpecs.spec(stub), Endpoint.PROJECTS);
+        var project = Project.builder().id("ProjectionTest").name("ProjectionTest").build();
+        assertEquals(projects.create(project).getStatusCode(), HttpStatus.SC_OK);
+        var projection = Projection.of(Project.class, Project::getName)
+                .with(Project::getParentProject, Projection.of(ParentProject.class, ParentProject::getId));
+
+        var read = projects.read(project.getId(), projection).as(Project.class);
+
+        assertEquals(read.getName(), "ProjectionTest");
+        assertEquals(read.getParentProject().getId(), "_Root");
+        assertNull(read.getParentProject().getName());
+        assertNull(read.getId());
+        assertNull(read.getBuildTypes());
+    }
+}
@@ -0,0 +1,74 @@
+package api.requests.checked;
+
+import api.models.BaseModel;
+import api.models.Build;
+import api.models.BuildType;
+import api.models.ParentProject;
+import api.models.Project;
+import api.models.SourceProject;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+
+public class CreationOrderTest {
+
+    @Test
+    public void independentModelsShouldFormOneLevel() {
+        var models = List.<BaseModel>of(project("a", null), project("b", null), project("c", null));
+
+        assertEquals(CreationOrder.levels(models), List.of(List.of(0, 1, 2)));
+    }
+
+    @Test
+    public void dependentModelsShouldBeCreatedAfterTheirDependencies() {
+        var models = List.<BaseModel>of(
+                build("bt"),
+                buildType("bt", "child"),
+                project("child", "parent"),
+                project("parent", null));
+
+        assertEquals(CreationOrder.levels(models), List.of(List.of(3), List.of(2), List.of(1), List.of(0)));
+    }
+
+    @Test
+    public void copyShouldWaitForSourceProjectAndItsBuildTypes() {
+        var copy = project("copy", null);
+        copy.setSourceProject(SourceProject.builder().locator("id:source").build());
+        var models = List.<BaseModel>of(copy, buildType("bt", "source"), project("source", null));
+
+        assertEquals(CreationOrder.levels(models), List.of(List.of(2), List.of(1), List.of(0)));
+    }
+
+    @Test
+    public void dependenciesOutsideOfSetShouldBeIgnored() {
+        var models = List.<BaseModel>of(project("child", "existing"), buildType("bt", "existing"));
+
+        assertEquals(CreationOrder.levels(models), List.of(List.of(0, 1)));
+    }
+
+    @Test
+    public void cyclicDependencyShouldBeRejected() {
+        var models = List.<BaseModel>of(project("a", "b"), project("b", "a"));
+
+        assertThrows(IllegalStateException.class, () -> CreationOrder.levels(models));
+    }
+
+    private static Project project(String id, String parentId) {
+        var project = Project.builder().id(id).name(id).build();
+        if (parentId != null) {
+            project.setParentProject(ParentProject.builder().locator("id:" + parentId).build());
+        }
+        return project;
+    }
+
+    private static BuildType buildType(String id, String projectId) {
+        return BuildType.builder().id(id).name(id).project(Project.builder().id(projectId).build()).build();
+    }
+
+    private static Build build(String buildTypeId) {
+        return Build.builder().buildType(BuildType.builder().id(buildTypeId).build()).build();
+    }
+}
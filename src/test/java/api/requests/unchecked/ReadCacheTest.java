@@ -0,0 +1,108 @@
+package api.requests.unchecked;
+
+import api.enums.Endpoint;
+import api.models.Project;
+import api.stub.StubSpecs;
+import api.stub.TeamCityStub;
+import io.restassured.filter.Filter;
+import org.apache.http.HttpStatus;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+// Чтение из собственной заглушки TeamCity, которая отвечает 304 на совпавший If-None-Match
+public class ReadCacheTest {
+    private TeamCityStub stub;
+    private UncheckedBase projects;
+    // Статусы ответов сервера на чтение и был ли запрос условным
+    private final List<String> reads = new CopyOnWriteArrayList<>();
+
+    @BeforeClass
+    public void startStub() {
+        stub = TeamCityStub.start(null);
+        Filter recorder = (requestSpec, responseSpec, ctx) -> {
+            var response = ctx.next(requestSpec, responseSpec);
+            if ("GET".equals(requestSpec.getMethod())) {
+                var conditional = requestSpec.getHeaders().getValue("If-None-Match") != null;
+                reads.add((conditional ? "conditional " : "") + response.getStatusCode());
+            }
+            return response;
+        };
+        projects = new UncheckedBase(StubSpecs.builder(stub).addFilter(recorder).build(), Endpoint.PROJECTS);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStub() {
+        if (stub != null) {
+            stub.close();
+        }
+    }
+
+    @BeforeMethod
+    public void clearReads() {
+        reads.clear();
+    }
+
+    // Сервер подтверждает актуальность без тела, а вызывающий получает сохраненный ответ 200
+    @Test
+    public void notModifiedResponseShouldBeServedFromCache() {
+        var id = create("ReadCacheTest_304");
+
+        var first = projects.read(id);
+        var second = projects.read(id);
+
+        assertEquals(reads, List.of("200", "conditional 304"));
+        assertEquals(second.getStatusCode(), HttpStatus.SC_OK);
+        assertEquals(second.as(Project.class).getName(), first.as(Project.class).getName());
+    }
+
+    @Test
+    public void updateShouldInvalidateCachedEntity() {
+        var id = create("ReadCacheTest_update");
+        projects.read(id);
+
+        assertEquals(projects.update(id, Project.builder().id(id).name("Renamed").build()).getStatusCode(),
+                HttpStatus.SC_OK);
+        var read = projects.read(id);
+
+        assertEquals(reads, List.of("200", "200"));
+        assertEquals(read.as(Project.class).getName(), "Renamed");
+    }
+
+    @Test
+    public void deleteShouldInvalidateCachedEntity() {
+        var id = create("ReadCacheTest_delete");
+        projects.read(id);
+
+        projects.delete(id);
+
+        assertEquals(projects.read(id).getStatusCode(), HttpStatus.SC_NOT_FOUND);
+        assertEquals(reads, List.of("200", "404"));
+    }
+
+    // Другие параметры запроса - другая запись кэша
+    @Test
+    public void differentQueryShouldNotUseCachedEntry() {
+        var id = create("ReadCacheTest_fields");
+        projects.read(id);
+
+        var partial = projects.read(id, Map.of("fields", "id"));
+
+        assertEquals(reads, List.of("200", "200"));
+        assertNull(partial.as(Project.class).getName());
+    }
+
+    private String create(String id) {
+        var response = projects.create(Project.builder().id(id).name(id).build());
+        assertEquals(response.getStatusCode(), HttpStatus.SC_OK, response.asString());
+        return id;
+    }
+}
@@ -0,0 +1,66 @@
+package api.requests.unchecked;
+
+import api.enums.Endpoint;
+import api.models.Project;
+import api.spec.ModelMapper;
+import api.stub.StubSpecs;
+import api.stub.TeamCityStub;
+import io.restassured.mapper.ObjectMapper;
+import io.restassured.mapper.ObjectMapperDeserializationContext;
+import io.restassured.mapper.ObjectMapperSerializationContext;
+import org.apache.http.HttpStatus;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.testng.Assert.assertEquals;
+
+public class UncheckedBaseTest {
+    private TeamCityStub stub;
+
+    @BeforeClass
+    public void startStub() {
+        stub = TeamCityStub.start(null);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStub() {
+        if (stub != null) {
+            stub.close();
+        }
+    }
+
+    // Тело сериализуется mapper'ом из спецификации, а не mapper'ом RestAssured по умолчанию
+    @Test
+    public void requestBodiesShouldBeWrittenBySpecMapper() {
+        var mapper = new RecordingMapper();
+        var projects = new UncheckedBase(StubSpecs.builder(stub).setConfig(StubSpecs.config(mapper)).build(),
+                Endpoint.PROJECTS);
+        var project = Project.builder().id("UncheckedBaseTest").name("UncheckedBaseTest").build();
+        var renamed = Project.builder().id("UncheckedBaseTest").name("Renamed").build();
+
+        assertEquals(projects.create(project).getStatusCode(), HttpStatus.SC_OK);
+        assertEquals(projects.update(project.getId(), renamed).getStatusCode(), HttpStatus.SC_OK);
+
+        assertEquals(mapper.serialized, List.of(project, renamed));
+    }
+
+    private static final class RecordingMapper implements ObjectMapper {
+        private final ModelMapper delegate = new ModelMapper();
+        private final List<Object> serialized = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Object serialize(ObjectMapperSerializationContext context) {
+            serialized.add(context.getObjectToSerialize());
+            return delegate.serialize(context);
+        }
+
+        @Override
+        public Object deserialize(ObjectMapperDeserializationContext context) {
+            return delegate.deserialize(context);
+        }
+    }
+}
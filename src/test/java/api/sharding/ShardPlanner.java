@@ -0,0 +1,50 @@
+package api.sharding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Распределение тестов по шардам.
+ * <p>
+ * Тесты из истории длительностей распределяются жадным алгоритмом LPT: самые долгие первыми отправляются в наименее
+ * загруженный шард. Распределяется вся история, а не только тесты текущего прогона, поэтому шард теста не зависит
+ * от того, какие еще тесты видит форк или агент. Тесты без истории распределяются по хэшу имени. Результат зависит
+ * только от имени теста и истории, поэтому все шарды и форки независимо получают одно и то же распределение.
+ */
+final class ShardPlanner {
+
+    private ShardPlanner() {
+    }
+
+    static Map<String, Integer> plan(Collection<String> methods, Map<String, Long> durations, int shardCount) {
+        var sorted = new ArrayList<>(durations.keySet());
+        sorted.sort(Comparator.<String>comparingLong(durations::get).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        var loads = new long[shardCount];
+        var planned = new HashMap<String, Integer>();
+        for (var method : sorted) {
+            var shard = 0;
+            for (var i = 1; i < shardCount; i++) {
+                if (loads[i] < loads[shard]) {
+                    shard = i;
+                }
+            }
+            loads[shard] += durations.get(method);
+            planned.put(method, shard);
+        }
+        var assignment = new HashMap<String, Integer>();
+        for (var method : methods) {
+            var shard = planned.get(method);
+            assignment.put(method, shard != null ? shard : hashShard(method, shardCount));
+        }
+        return assignment;
+    }
+
+    // String.hashCode определен спецификацией и одинаков во всех JVM
+    static int hashShard(String method, int shardCount) {
+        return Math.floorMod(method.hashCode(), shardCount);
+    }
+}
@@ -0,0 +1,79 @@
+package api.sharding;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class ShardPlannerTest {
+    private static final int SHARD_COUNT = 4;
+
+    private static final List<String> METHODS = IntStream.range(0, 50)
+            .mapToObj(i -> "api.SomeTest.method" + i)
+            .toList();
+
+    // История есть у части тестов, в том числе у тестов, которых в прогоне уже нет
+    private static Map<String, Long> history() {
+        var durations = new HashMap<String, Long>();
+        for (var i = 0; i < 30; i++) {
+            durations.put("api.SomeTest.method" + i, 100L * (i % 7 + 1));
+        }
+        durations.put("api.RemovedTest.method", 5000L);
+        return durations;
+    }
+
+    @Test
+    public void everyMethodShouldLandInExactlyOneShard() {
+        var history = history();
+        var shards = new ArrayList<List<String>>();
+        for (var shard = 0; shard < SHARD_COUNT; shard++) {
+            var current = shard;
+            // Каждый шард планирует независимо, как отдельный агент CI
+            var assignment = ShardPlanner.plan(METHODS, history, SHARD_COUNT);
+            shards.add(METHODS.stream().filter(method -> assignment.get(method) == current).toList());
+        }
+        var counts = new HashMap<String, Integer>();
+        shards.forEach(shard -> shard.forEach(method -> counts.merge(method, 1, Integer::sum)));
+
+        assertEquals(counts.keySet().size(), METHODS.size(), "Some methods are not assigned to any shard");
+        counts.forEach((method, count) -> assertEquals((int) count, 1, method + " is assigned to several shards"));
+    }
+
+    @Test
+    public void assignmentShouldNotDependOnOtherMethodsInRun() {
+        var history = history();
+        var full = ShardPlanner.plan(METHODS, history, SHARD_COUNT);
+        // Форк видит только часть методов
+        var forkMethods = METHODS.subList(10, 35);
+        var fork = ShardPlanner.plan(forkMethods, history, SHARD_COUNT);
+
+        forkMethods.forEach(method -> assertEquals(fork.get(method), full.get(method), method));
+    }
+
+    @Test
+    public void methodsWithoutHistoryShouldBeAssignedByHash() {
+        var assignment = ShardPlanner.plan(METHODS, Map.of(), SHARD_COUNT);
+
+        METHODS.forEach(method -> {
+            assertEquals((int) assignment.get(method), ShardPlanner.hashShard(method, SHARD_COUNT), method);
+            assertTrue(assignment.get(method) >= 0 && assignment.get(method) < SHARD_COUNT, method);
+        });
+    }
+
+    @Test
+    public void methodsWithHistoryShouldBeBalancedByDuration() {
+        var durations = Map.of("a", 400L, "b", 300L, "c", 200L, "d", 100L);
+        var assignment = ShardPlanner.plan(durations.keySet(), durations, 2);
+        var loads = new long[2];
+        durations.forEach((method, millis) -> loads[assignment.get(method)] += millis);
+
+        assertEquals(loads[0], 500L);
+        assertEquals(loads[1], 500L);
+    }
+}
@@ -0,0 +1,85 @@
+package api.sharding;
+
+import api.config.Config;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Шардирование прогона по длительности тестов.
+ * <p>
+ * При shardCount > 1 (-PshardCount=N -Pshard=i, например для разных агентов CI) оставляет в прогоне только методы
+ * шарда shard, распределенные {@link ShardPlanner} по истории длительностей из testDurationsFile
+ * (-PtestDurationsFile=..., общий для всех агентов файл, например артефакт предыдущей сборки). Без истории тесты
+ * распределяются по хэшу имени. Замеры прогона пишутся в отдельный testDurationsOutputFile, чтобы входная история
+ * была одинаковой у всех агентов. Подключается в build.gradle как слушатель TestNG.
+ */
+public class ShardingListener implements IMethodInterceptor, ITestListener {
+    private static final String DEFAULT_OUTPUT_FILE = "build/test-durations.properties";
+
+    private final Map<String, Long> history;
+    private final TestDurations output;
+    private final int shard;
+    private final int shardCount;
+    private final Map<String, Long> measured = new ConcurrentHashMap<>();
+
+    public ShardingListener() {
+        var historyFile = Config.getProperty("testDurationsFile");
+        this.history = historyFile == null || historyFile.isBlank() ? Map.of()
+                : new TestDurations(Path.of(historyFile.trim())).load();
+        var outputFile = Config.getProperty("testDurationsOutputFile");
+        this.output = new TestDurations(Path.of(outputFile == null || outputFile.isBlank()
+                ? DEFAULT_OUTPUT_FILE : outputFile.trim()));
+        this.shard = Config.getIntProperty("shard", 0);
+        this.shardCount = Config.getIntProperty("shardCount", 1);
+        if (shardCount > 1 && (shard < 0 || shard >= shardCount)) {
+            throw new IllegalArgumentException("Shard %d is out of range 0..%d".formatted(shard, shardCount - 1));
+        }
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (shardCount <= 1) {
+            return methods;
+        }
+        var names = new LinkedHashSet<String>();
+        methods.forEach(method -> names.add(method.getMethod().getQualifiedName()));
+        var assignment = ShardPlanner.plan(names, history, shardCount);
+        var shardMethods = methods.stream()
+                .filter(method -> assignment.get(method.getMethod().getQualifiedName()) == shard)
+                .toList();
+        System.out.println("Shard %d/%d: %d of %d test methods".formatted(shard, shardCount, shardMethods.size(),
+                methods.size()));
+        return shardMethods;
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        record(result);
+    }
+
+    @Override
+    public void onFinish(ITestContext context) {
+        output.update(Map.copyOf(measured));
+        measured.clear();
+    }
+
+    // Повторные вызовы метода (invocationCount, data provider) суммируются
+    private void record(ITestResult result) {
+        measured.merge(result.getMethod().getQualifiedName(), result.getEndMillis() - result.getStartMillis(),
+                Long::sum);
+    }
+}
@@ -0,0 +1,75 @@
+package api.sharding;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * История длительности тестов: метод -> миллисекунды.
+ * <p>
+ * Файл замеров общий для всех форков, поэтому обновляется под блокировкой файла: прочитать, смешать с новыми замерами
+ * (среднее старого и нового значения сглаживает случайные выбросы) и записать.
+ */
+final class TestDurations {
+    private final Path file;
+
+    TestDurations(Path file) {
+        this.file = file;
+    }
+
+    Map<String, Long> load() {
+        if (!Files.exists(file)) {
+            return Map.of();
+        }
+        try (InputStream stream = Files.newInputStream(file)) {
+            var properties = new Properties();
+            properties.load(stream);
+            return toMap(properties);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Cannot read test durations from %s: %s".formatted(file, e.getMessage()));
+            return Map.of();
+        }
+    }
+
+    void update(Map<String, Long> measured) {
+        if (measured.isEmpty()) {
+            return;
+        }
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+                 var ignored = channel.lock()) {
+                var properties = new Properties();
+                properties.load(Channels.newInputStream(channel));
+                var durations = toMap(properties);
+                measured.forEach((method, millis) -> durations.merge(method, millis, (old, now) -> (old + now) / 2));
+                var updated = new Properties();
+                durations.forEach((method, millis) -> updated.setProperty(method, String.valueOf(millis)));
+                channel.truncate(0);
+                channel.position(0);
+                OutputStream stream = Channels.newOutputStream(channel);
+                updated.store(stream, "Test durations in milliseconds, used to balance shards");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write test durations to " + file, e);
+        }
+    }
+
+    private static Map<String, Long> toMap(Properties properties) {
+        var durations = new HashMap<String, Long>();
+        properties.forEach((method, millis) -> durations.put((String) method, Long.parseLong((String) millis)));
+        return durations;
+    }
+}
@@ -0,0 +1,52 @@
+package api.spec;
+
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class ExchangeLogTest {
+
+    // Буфер переполнен: остаются последние capacity обменов по порядку, а не по позиции в массиве
+    @Test
+    public void wrappedBufferShouldKeepLastExchangesInOrder() {
+        var log = new ExchangeLog(3);
+        record(log, 5);
+
+        assertEquals(uris(log.takeUndumped()), List.of("/2", "/3", "/4"));
+    }
+
+    @Test
+    public void exchangesShouldBeDumpedOnce() {
+        var log = new ExchangeLog(3);
+        record(log, 2);
+        log.takeUndumped();
+
+        assertTrue(log.takeUndumped().isEmpty());
+        log.record("GET", "/next", null, null, null, 0);
+        assertEquals(uris(log.takeUndumped()), List.of("/next"));
+    }
+
+    // После вывода буфер переполнился: выводятся только оставшиеся в нем новые обмены
+    @Test
+    public void exchangesOverwrittenAfterDumpShouldBeSkipped() {
+        var log = new ExchangeLog(3);
+        record(log, 2);
+        log.takeUndumped();
+        record(log, 4);
+
+        assertEquals(uris(log.takeUndumped()), List.of("/1", "/2", "/3"));
+    }
+
+    private static void record(ExchangeLog log, int count) {
+        for (var i = 0; i < count; i++) {
+            log.record("GET", "/" + i, null, null, null, 0);
+        }
+    }
+
+    private static List<String> uris(List<ExchangeLog.Exchange> exchanges) {
+        return exchanges.stream().map(ExchangeLog.Exchange::uri).toList();
+    }
+}
@@ -0,0 +1,170 @@
+package api.spec;
+
+import api.enums.Endpoint;
+import api.models.Project;
+import api.stub.StubSpecs;
+import api.stub.TeamCityStub;
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.apache.http.HttpStatus;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class NodeRouterTest {
+    private static final long NO_WINDOW = 0;
+    private static final long LONG_WINDOW = 60_000;
+
+    private TeamCityStub mainNode;
+    // Отдельная заглушка без данных основного узла: узел, до которого запись еще не дошла
+    private TeamCityStub laggingNode;
+
+    @BeforeClass
+    public void startStubs() {
+        mainNode = TeamCityStub.start(null);
+        laggingNode = TeamCityStub.start(null);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStubs() {
+        if (mainNode != null) {
+            mainNode.close();
+        }
+        if (laggingNode != null) {
+            laggingNode.close();
+        }
+    }
+
+    @Test
+    public void roundRobinShouldSkipUnhealthyNodes() {
+        var router = new NodeRouter(List.of("a", "b"), NodeRouter.Policy.ROUND_ROBIN, "/", NO_WINDOW);
+
+        assertEquals(readHosts(router, 3), new HashSet<>(Arrays.asList(null, "a", "b")));
+        secondary(router, "a").setHealthy(false);
+        assertEquals(readHosts(router, 4), new HashSet<>(Arrays.asList(null, "b")));
+        secondary(router, "b").setHealthy(false);
+        assertSame(router.pickRead(), router.main());
+    }
+
+    @Test
+    public void leastLoadedShouldPickNodeWithFewestRequests() {
+        var router = new NodeRouter(List.of("a", "b"), NodeRouter.Policy.LEAST_LOADED, "/", NO_WINDOW);
+        router.main().begin();
+        secondary(router, "a").begin();
+
+        assertEquals(router.pickRead().getHost(), "b");
+    }
+
+    // После записи поток читает с основного узла, а чтение других потоков распределяется как обычно
+    @Test
+    public void readsAfterWriteShouldStayOnMainForWritingThread() {
+        var router = new NodeRouter(List.of("a", "b"), NodeRouter.Policy.ROUND_ROBIN, "/", LONG_WINDOW);
+        router.recordWrite();
+
+        for (var i = 0; i < 5; i++) {
+            assertSame(router.pickRead(), router.main());
+        }
+        var otherThreadHosts = CompletableFuture.supplyAsync(() -> readHosts(router, 3)).join();
+        assertTrue(otherThreadHosts.contains("a") && otherThreadHosts.contains("b"), otherThreadHosts.toString());
+    }
+
+    @Test
+    public void readsShouldBeSpreadAgainAfterWindow() {
+        var router = new NodeRouter(List.of("a"), NodeRouter.Policy.ROUND_ROBIN, "/", NO_WINDOW);
+        router.recordWrite();
+
+        assertTrue(readHosts(router, 2).contains("a"));
+    }
+
+    @Test
+    public void failoverShouldRetryOnlyNodeFailureOnce() {
+        var router = new NodeRouter(List.of("a"), NodeRouter.Policy.ROUND_ROBIN, "/", NO_WINDOW);
+        var calls = new AtomicInteger();
+
+        var result = router.withFailover(() -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new NodeRouter.NodeUnavailableException("a", null);
+            }
+            return "ok";
+        });
+
+        assertEquals(result, "ok");
+        assertEquals(calls.get(), 2);
+        calls.set(0);
+        assertThrows(IllegalStateException.class, () -> router.withFailover(() -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("not a node failure");
+        }));
+        assertEquals(calls.get(), 1);
+    }
+
+    // Без окна часть чтений сразу после создания уходит на отстающий узел и не находит проект
+    @Test
+    public void createdProjectShouldBeReadFromMainNode() {
+        var router = new NodeRouter(List.of(laggingNode.getHost()), NodeRouter.Policy.ROUND_ROBIN, "/", LONG_WINDOW);
+        var spec = routedSpec(router);
+        var project = Project.builder().id("NodeRouterTestOwnWrite").name("NodeRouterTestOwnWrite").build();
+
+        assertEquals(RestAssured.given().spec(spec).body(project).post(Endpoint.PROJECTS.getUrl()).getStatusCode(),
+                HttpStatus.SC_OK);
+        for (var i = 0; i < 4; i++) {
+            assertEquals(read(spec, project.getId()).getStatusCode(), HttpStatus.SC_OK);
+        }
+    }
+
+    // Отказавший узел выводится из ротации, и повтор чтения уходит на основной узел
+    @Test
+    public void readShouldFailOverFromUnavailableNode() throws IOException {
+        var project = Project.builder().id("NodeRouterTestFailover").name("NodeRouterTestFailover").build();
+        assertEquals(RestAssured.given().spec(StubSpecs.spec(mainNode)).body(project)
+                .post(Endpoint.PROJECTS.getUrl()).getStatusCode(), HttpStatus.SC_OK);
+        var router = new NodeRouter(List.of("localhost:" + closedPort()), NodeRouter.Policy.ROUND_ROBIN, "/",
+                NO_WINDOW);
+        var spec = routedSpec(router);
+
+        for (var i = 0; i < 3; i++) {
+            assertEquals(router.withFailover(() -> read(spec, project.getId())).getStatusCode(), HttpStatus.SC_OK);
+        }
+        assertSame(router.pickRead(), router.main());
+    }
+
+    private RequestSpecification routedSpec(NodeRouter router) {
+        return StubSpecs.builder(mainNode).addFilter(new NodeRoutingFilter(router)).build();
+    }
+
+    private static Response read(RequestSpecification spec, String id) {
+        return RestAssured.given().spec(spec).get(Endpoint.PROJECTS.getUrl() + "/id:" + id);
+    }
+
+    private static HashSet<String> readHosts(NodeRouter router, int count) {
+        var hosts = new HashSet<String>();
+        for (var i = 0; i < count; i++) {
+            hosts.add(router.pickRead().getHost());
+        }
+        return hosts;
+    }
+
+    private static NodeRouter.Node secondary(NodeRouter router, String host) {
+        return router.secondaries().stream().filter(node -> host.equals(node.getHost())).findFirst().orElseThrow();
+    }
+
+    private static int closedPort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
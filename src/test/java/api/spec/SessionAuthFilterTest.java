@@ -0,0 +1,105 @@
+package api.spec;
+
+import api.enums.Endpoint;
+import api.stub.StubSpecs;
+import api.stub.TeamCityStub;
+import io.restassured.RestAssured;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.specification.RequestSpecification;
+import org.apache.http.HttpStatus;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+// Вход в собственную заглушку TeamCity; каждый вход выдает новый CSRF-токен, по нему различаются сессии
+public class SessionAuthFilterTest {
+    private static final String CSRF_HEADER = "X-TC-CSRF-Token";
+
+    private TeamCityStub stub;
+
+    @BeforeClass
+    public void startStub() {
+        stub = TeamCityStub.start("token");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStub() {
+        if (stub != null) {
+            stub.close();
+        }
+    }
+
+    @Test
+    public void sessionShouldBeReusedBetweenRequests() {
+        var tokens = new CopyOnWriteArrayList<String>();
+        var spec = spec(new SessionAuthFilter("", "token", 60, StubSpecs.config(new ModelMapper())),
+                recorder(tokens, Set.of()));
+
+        for (var i = 0; i < 3; i++) {
+            assertEquals(readRoot(spec), HttpStatus.SC_OK);
+        }
+
+        assertEquals(tokens.size(), 3);
+        assertEquals(Set.copyOf(tokens).size(), 1);
+    }
+
+    // Сервер завершил сессию: фильтр входит заново, повторяет запрос один раз и дальше работает с новой сессией
+    @Test
+    public void unauthorizedResponseShouldTriggerReloginAndRetry() {
+        var tokens = new CopyOnWriteArrayList<String>();
+        var expired = ConcurrentHashMap.<String>newKeySet();
+        var filter = new SessionAuthFilter("", "token", 60, StubSpecs.config(new ModelMapper()));
+        var spec = spec(filter, recorder(tokens, expired));
+        assertEquals(readRoot(spec), HttpStatus.SC_OK);
+        expired.add(tokens.get(0));
+
+        assertEquals(readRoot(spec), HttpStatus.SC_OK);
+        assertEquals(readRoot(spec), HttpStatus.SC_OK);
+
+        assertEquals(tokens.size(), 4);
+        assertEquals(tokens.get(1), tokens.get(0));
+        assertNotEquals(tokens.get(2), tokens.get(0));
+        assertEquals(tokens.get(3), tokens.get(2));
+    }
+
+    // Неверный пароль: запрос не отправляется, вместо ответа на него возвращается ответ на вход
+    @Test
+    public void failedLoginShouldReturnLoginResponse() {
+        var tokens = new CopyOnWriteArrayList<String>();
+        var spec = spec(new SessionAuthFilter("", "wrong", 60, StubSpecs.config(new ModelMapper())),
+                recorder(tokens, Set.of()));
+
+        assertEquals(readRoot(spec), HttpStatus.SC_UNAUTHORIZED);
+        assertTrue(tokens.isEmpty(), tokens.toString());
+    }
+
+    private RequestSpecification spec(SessionAuthFilter filter, Filter recorder) {
+        return StubSpecs.builder(stub).addFilter(filter).addFilter(recorder).build();
+    }
+
+    // Стоит после SessionAuthFilter: записывает токен сессии и отвечает 401 на запросы с завершенной сессией
+    private static Filter recorder(List<String> tokens, Set<String> expired) {
+        return (requestSpec, responseSpec, ctx) -> {
+            var token = requestSpec.getHeaders().getValue(CSRF_HEADER);
+            tokens.add(token);
+            if (expired.contains(token)) {
+                return new ResponseBuilder().setStatusCode(HttpStatus.SC_UNAUTHORIZED).build();
+            }
+            return ctx.next(requestSpec, responseSpec);
+        };
+    }
+
+    private static int readRoot(RequestSpecification spec) {
+        return RestAssured.given().spec(spec).get(Endpoint.PROJECTS.getUrl() + "/id:_Root").getStatusCode();
+    }
+}
@@ -0,0 +1,65 @@
+package api.spec;
+
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.specification.RequestSpecification;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.testng.Assert.assertEquals;
+
+// Пересборка определяется по числу вызовов фабрики спецификации
+public class SpecCacheTest {
+
+    @Test
+    public void samePasswordShouldReuseSpec() {
+        var cache = new SpecCache(2);
+        var builds = new AtomicInteger();
+
+        cache.get("user@host", "secret", counting(builds));
+        cache.get("user@host", "secret", counting(builds));
+
+        assertEquals(builds.get(), 1);
+    }
+
+    // Смена пароля пересобирает спецификацию вместо второй записи со старым паролем
+    @Test
+    public void passwordMismatchShouldRebuildSpec() {
+        var cache = new SpecCache(2);
+        var builds = new AtomicInteger();
+        cache.get("user@host", "old", counting(builds));
+
+        cache.get("user@host", "new", counting(builds));
+        cache.get("user@host", "new", counting(builds));
+
+        assertEquals(builds.get(), 2);
+        assertEquals(cache.size(), 1);
+    }
+
+    // Вытесняется запись, к которой дольше всего не обращались, а не самая старая
+    @Test
+    public void leastRecentlyUsedSpecShouldBeEvicted() {
+        var cache = new SpecCache(2);
+        var builds = new AtomicInteger();
+        cache.get("first@host", null, counting(builds));
+        cache.get("second@host", null, counting(builds));
+        cache.get("first@host", null, counting(builds));
+
+        cache.get("third@host", null, counting(builds));
+        assertEquals(builds.get(), 3);
+        cache.get("first@host", null, counting(builds));
+        assertEquals(builds.get(), 3);
+        cache.get("second@host", null, counting(builds));
+
+        assertEquals(builds.get(), 4);
+        assertEquals(cache.size(), 2);
+    }
+
+    private static Supplier<RequestSpecification> counting(AtomicInteger builds) {
+        return () -> {
+            builds.incrementAndGet();
+            return new RequestSpecBuilder().build();
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package api.stub;
+
+import api.spec.ModelMapper;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.ObjectMapperConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+
+/**
+ * Спецификации запросов к собственной заглушке теста: без фильтров Specifications и без изменения глобального host.
+ */
+public final class StubSpecs {
+
+    private StubSpecs() {
+    }
+
+    public static RequestSpecBuilder builder(TeamCityStub stub) {
+        return new RequestSpecBuilder()
+                .setBaseUri("http://" + stub.getHost())
+                .setContentType(ContentType.JSON)
+                .setAccept(ContentType.JSON)
+                .setConfig(config(new ModelMapper()));
+    }
+
+    public static RequestSpecification spec(TeamCityStub stub) {
+        return builder(stub).build();
+    }
+
+    public static RestAssuredConfig config(io.restassured.mapper.ObjectMapper objectMapper) {
+        return RestAssuredConfig.config().objectMapperConfig(ObjectMapperConfig.objectMapperConfig()
+                .defaultObjectMapper(objectMapper));
+    }
+}